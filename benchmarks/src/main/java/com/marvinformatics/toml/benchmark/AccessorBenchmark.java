@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml.benchmark;
+
+import com.moandjiezana.toml.Toml;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated accessors, in every access mode, against the same lookups done on the raw {@link Toml}.
+ * Run with <code>-prof gc</code> to see allocation per call.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccessorBenchmark {
+
+    private Toml toml;
+
+    private com.marvinformatics.toml.benchmark.delegate.Wikipedia delegate;
+
+    private com.marvinformatics.toml.benchmark.snapshot.Wikipedia snapshot;
+
+    private com.marvinformatics.toml.benchmark.constant.Wikipedia constant;
+
+    @Setup
+    public void setup() {
+        toml = new Toml().read(Documents.wikipedia());
+        delegate = new com.marvinformatics.toml.benchmark.delegate.Wikipedia(toml);
+        snapshot = new com.marvinformatics.toml.benchmark.snapshot.Wikipedia(toml);
+        constant = com.marvinformatics.toml.benchmark.constant.Wikipedia.INSTANCE;
+    }
+
+    @Benchmark
+    public String rawTitle() {
+        return toml.getString("title");
+    }
+
+    @Benchmark
+    public String delegateTitle() {
+        return delegate.title();
+    }
+
+    @Benchmark
+    public String snapshotTitle() {
+        return snapshot.title();
+    }
+
+    @Benchmark
+    public String constantTitle() {
+        return constant.title();
+    }
+
+    @Benchmark
+    public String rawNested() {
+        return toml.getString("servers.alpha.ip");
+    }
+
+    @Benchmark
+    public String delegateNested() {
+        return delegate.servers().alpha().ip();
+    }
+
+    @Benchmark
+    public String snapshotNested() {
+        return snapshot.servers().alpha().ip();
+    }
+
+    @Benchmark
+    public String constantNested() {
+        return constant.servers().alpha().ip();
+    }
+
+    @Benchmark
+    public Object delegatePath() {
+        return delegate.get("servers.alpha.ip");
+    }
+
+    @Benchmark
+    public Object snapshotPath() {
+        return snapshot.get("servers.alpha.ip");
+    }
+
+    @Benchmark
+    public Object constantPath() {
+        return constant.get("servers.alpha.ip");
+    }
+
+    @Benchmark
+    public List<String> rawList() {
+        return toml.getList("clients.hosts");
+    }
+
+    @Benchmark
+    public List<String> delegateList() {
+        return delegate.clients().hosts();
+    }
+
+    @Benchmark
+    public List<String> snapshotList() {
+        return snapshot.clients().hosts();
+    }
+
+    @Benchmark
+    public List<String> constantList() {
+        return constant.clients().hosts();
+    }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml.benchmark;
+
+import com.google.common.io.CharStreams;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Toml documents shared by the benchmarks.
+ */
+final class Documents {
+
+    private Documents() {
+    }
+
+    static String wikipedia() {
+        try (Reader reader = new InputStreamReader(Documents.class.getResourceAsStream("/wikipedia.toml"),
+                StandardCharsets.UTF_8)) {
+            return CharStreams.toString(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Builds a chain of <code>depth</code> nested tables under the root, every one of them with <code>width</code>
+     * keys cycling through strings, integers, floats, booleans and arrays.
+     */
+    static String synthetic(int width, int depth) {
+        StringBuilder document = new StringBuilder();
+        StringBuilder table = new StringBuilder();
+        for (int level = 0; level <= depth; level++) {
+            if (level > 0) {
+                if (table.length() > 0)
+                    table.append('.');
+                table.append("level_").append(level);
+                document.append('[').append(table).append("]\n");
+            }
+            for (int key = 0; key < width; key++) {
+                document.append("key_").append(key).append(" = ");
+                switch (key % 5) {
+                    case 0:
+                        document.append('"').append("value ").append(key).append('"');
+                        break;
+                    case 1:
+                        document.append(key);
+                        break;
+                    case 2:
+                        document.append(key).append(".5");
+                        break;
+                    case 3:
+                        document.append(key % 2 == 0);
+                        break;
+                    default:
+                        document.append('[').append(key).append(", ").append(key + 1).append(']');
+                }
+                document.append('\n');
+            }
+        }
+        return document.toString();
+    }
+
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml.benchmark;
+
+import com.google.common.base.CaseFormat;
+import com.marvinformatics.toml.AccessMode;
+import com.marvinformatics.toml.ConfigSource;
+import com.marvinformatics.toml.Generator;
+import com.marvinformatics.toml.MemberOrder;
+import com.moandjiezana.toml.Toml;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Generator#generate()} on synthetic documents of growing width and depth. Sources are rendered but
+ * discarded, so disk speed does not leak into the numbers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeneratorBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int width;
+
+    @Param({ "1", "4", "16" })
+    private int depth;
+
+    @Param({ "DELEGATE", "SNAPSHOT", "CONSTANT" })
+    private AccessMode accessMode;
+
+    private String document;
+
+    private Toml toml;
+
+    private ConfigSource config;
+
+    @Setup
+    public void setup() throws IOException {
+        document = Documents.synthetic(width, depth);
+        toml = new Toml().read(document);
+        config = new BenchmarkConfig(Files.createTempDirectory("generator-benchmark").toFile(), accessMode);
+    }
+
+    @Benchmark
+    public void generate() throws IOException {
+        new Generator("synthetic", "com.marvinformatics.toml.benchmark", toml, document,
+                file -> new OutputStream() {
+                    @Override
+                    public void write(int b) {
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) {
+                    }
+                }, config).generate();
+    }
+
+    private static class BenchmarkConfig implements ConfigSource {
+
+        private final File outputDirectory;
+
+        private final AccessMode accessMode;
+
+        BenchmarkConfig(File outputDirectory, AccessMode accessMode) {
+            this.outputDirectory = outputDirectory;
+            this.accessMode = accessMode;
+        }
+
+        @Override
+        public String classPrefix() {
+            return "";
+        }
+
+        @Override
+        public String classSuffix() {
+            return "";
+        }
+
+        @Override
+        public Charset encoding() {
+            return StandardCharsets.UTF_8;
+        }
+
+        @Override
+        public CaseFormat tableCase(CaseFormat tableCase) {
+            return tableCase;
+        }
+
+        @Override
+        public CaseFormat fieldCase(CaseFormat fieldCase) {
+            return fieldCase;
+        }
+
+        @Override
+        public File outputDirectory() {
+            return outputDirectory;
+        }
+
+        @Override
+        public AccessMode accessMode() {
+            return accessMode;
+        }
+
+        @Override
+        public boolean primitives() {
+            return false;
+        }
+
+        @Override
+        public MemberOrder order() {
+            return MemberOrder.DOCUMENT;
+        }
+
+        @Override
+        public boolean parser() {
+            return false;
+        }
+
+        @Override
+        public boolean reloadable() {
+            return false;
+        }
+
+        @Override
+        public boolean deduplicate() {
+            return false;
+        }
+
+        @Override
+        public boolean merge() {
+            return false;
+        }
+
+        @Override
+        public boolean visitor() {
+            return false;
+        }
+
+        @Override
+        public boolean binary() {
+            return false;
+        }
+
+        @Override
+        public File binaryDirectory() {
+            return outputDirectory;
+        }
+
+        @Override
+        public boolean lazy() {
+            return false;
+        }
+
+        @Override
+        public boolean registry() {
+            return false;
+        }
+
+    }
+
+}
@@ -20,6 +20,7 @@ import com.google.common.base.Charsets;
 import com.google.common.base.Strings;
 import com.moandjiezana.toml.Toml;
 
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -31,12 +32,25 @@ import org.codehaus.plexus.util.DirectoryScanner;
 import org.codehaus.plexus.util.FileUtils;
 import org.sonatype.plexus.build.incremental.BuildContext;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public abstract class AbstractGeneratorMojo extends AbstractMojo implements ConfigSource {
@@ -44,12 +58,21 @@ public abstract class AbstractGeneratorMojo extends AbstractMojo implements Conf
     @Component
     private BuildContext buildContext;
 
+    @Component
+    private GenerationCache cache;
+
+    @Parameter(defaultValue = "${session}", readonly = true)
+    private MavenSession session;
+
     @Parameter(defaultValue = "${project}", readonly = true)
     protected MavenProject project;
 
     @Parameter(defaultValue = "${basedir}", readonly = true)
     private File basedir;
 
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    private String pluginVersion;
+
     @Parameter(defaultValue = "com.marvinformatics.toml", property = "toml.package")
     private String packageName;
 
@@ -80,6 +103,53 @@ public abstract class AbstractGeneratorMojo extends AbstractMojo implements Conf
     @Parameter(defaultValue = "LOWER_UNDERSCORE", property = "toml.fieldCase")
     private String fieldCase;
 
+    @Parameter(defaultValue = "DELEGATE", property = "toml.accessMode")
+    private String accessMode;
+
+    @Parameter(defaultValue = "DOCUMENT", property = "toml.order")
+    private String order;
+
+    @Parameter(defaultValue = "1", property = "toml.threads")
+    private int threads;
+
+    /**
+     * Generates <code>long</code>, <code>double</code> and <code>boolean</code> accessors instead of their boxed
+     * types, and <code>long[]</code>, <code>double[]</code> and <code>boolean[]</code> for homogeneous lists of them.
+     * Each array is converted from the toml only once, but every accessor call returns a fresh copy of it so callers
+     * can not change the configuration. Read it once into a local variable in hot loops.
+     */
+    @Parameter(defaultValue = "false", property = "toml.primitives")
+    private boolean primitives;
+
+    @Parameter(defaultValue = "false", property = "toml.parser")
+    private boolean parser;
+
+    @Parameter(defaultValue = "false", property = "toml.reloadable")
+    private boolean reloadable;
+
+    @Parameter(defaultValue = "false", property = "toml.deduplicate")
+    private boolean deduplicate;
+
+    @Parameter(defaultValue = "false", property = "toml.merge")
+    private boolean merge;
+
+    @Parameter(defaultValue = "false", property = "toml.visitor")
+    private boolean visitor;
+
+    @Parameter(defaultValue = "false", property = "toml.binary")
+    private boolean binary;
+
+    @Parameter(defaultValue = "false", property = "toml.lazy")
+    private boolean lazy;
+
+    @Parameter(defaultValue = "false", property = "toml.registry")
+    private boolean registry;
+
+    @Parameter(defaultValue = "64", property = "toml.cacheSize")
+    private int cacheSize;
+
+    private final AtomicInteger unchanged = new AtomicInteger();
+
     public AbstractGeneratorMojo() {
         super();
     }
@@ -91,8 +161,9 @@ public abstract class AbstractGeneratorMojo extends AbstractMojo implements Conf
             return;
         }
 
-        if (sourceDirectories == null || sourceDirectories.isEmpty()) {
-            sourceDirectories = resources().stream()
+        List<File> directories = sourceDirectories;
+        if (directories == null || directories.isEmpty()) {
+            directories = resources().stream()
                     .map(resource -> resource.getDirectory())
                     .map(path -> new File(path))
                     .collect(Collectors.toList());
@@ -101,7 +172,9 @@ public abstract class AbstractGeneratorMojo extends AbstractMojo implements Conf
         getLog().debug("Looking for: " + Arrays.toString(includes));
         getLog().debug("Excluding: " + Arrays.toString(excludes));
 
-        List<File> files = sourceDirectories.stream()
+        GenerationMetrics metrics = new GenerationMetrics();
+        long scanStart = System.nanoTime();
+        List<File> files = directories.stream()
                 .peek(directory -> getLog().debug("Scanning: " + directory.getAbsolutePath()))
                 .flatMap(directory -> {
                     DirectoryScanner scanner = new DirectoryScanner();
@@ -114,35 +187,290 @@ public abstract class AbstractGeneratorMojo extends AbstractMojo implements Conf
                     return Arrays.asList(scanner.getIncludedFiles()).stream()
                             .map(file -> new File(directory, file));
                 })
-                .filter(file -> buildContext.hasDelta(file))
+                .sorted()
                 .peek(file -> getLog().debug("Toml file: " + file.getAbsolutePath()))
                 .collect(Collectors.toList());
+        metrics.scanned(System.nanoTime() - scanStart);
+
+        GenerationIndex index;
+        try {
+            index = GenerationIndex.load(indexFile());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to read generation index: " + indexFile(), e);
+        }
 
+        String settings = settings();
+        String generatorSettings = generatorSettings();
+        cache.open(session, cacheSize * 1024L * 1024L);
+        long hits = cache.hits();
+        unchanged.set(0);
+        Map<File, String> changed = new LinkedHashMap<>();
         for (File tomlFile : files) {
-            Toml toml;
+            long start = System.nanoTime();
+            if (!buildContext.hasDelta(tomlFile))
+                continue;
+
+            String fingerprint;
             try {
-                toml = new Toml().read(tomlFile);
-            } catch (Exception e) {
-                throw new MojoExecutionException("Unable to parse toml file: " + tomlFile, e);
+                fingerprint = GenerationIndex.fingerprint(tomlFile, settings);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Unable to read toml file: " + tomlFile, e);
+            }
+
+            if (index.isUpToDate(tomlFile, fingerprint))
+                getLog().debug("Up to date: " + tomlFile.getAbsolutePath());
+            else
+                changed.put(tomlFile, fingerprint);
+            metrics.entry(tomlFile).scanned(System.nanoTime() - start);
+        }
+
+        Set<File> stale = new HashSet<>();
+        for (File source : new ArrayList<>(index.sources()))
+            if (!files.contains(source))
+                stale.addAll(index.remove(source).outputs());
+
+        List<MojoExecutionException> failures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            Map<File, Future<List<File>>> tasks = new LinkedHashMap<>();
+            for (File tomlFile : changed.keySet()) {
+                GenerationMetrics.Entry entry = metrics.entry(tomlFile);
+                tasks.put(tomlFile, executor.submit(() -> generate(tomlFile, generatorSettings, entry)));
             }
 
+            for (Map.Entry<File, Future<List<File>>> task : tasks.entrySet()) {
+                try {
+                    List<File> outputs = task.getValue().get();
+
+                    GenerationIndex.Entry previous = index.remove(task.getKey());
+                    if (previous != null)
+                        stale.addAll(previous.outputs());
+                    index.put(task.getKey(), changed.get(task.getKey()), outputs);
+                } catch (ExecutionException e) {
+                    metrics.entry(task.getKey()).failed();
+                    if (e.getCause() instanceof MojoExecutionException)
+                        failures.add((MojoExecutionException) e.getCause());
+                    else
+                        failures.add(new MojoExecutionException("Unable to generate java sources", e.getCause()));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while generating java sources", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        stale.removeIf(output -> index.isOutput(output));
+        for (File output : stale)
+            if (output.delete()) {
+                getLog().debug("Removed stale source: " + output.getAbsolutePath());
+                buildContext.refresh(output);
+            }
+
+        try {
+            index.save();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write generation index: " + indexFile(), e);
+        }
+
+        getLog().info(String.format(
+                "Generated %d toml file(s), %d up to date, %d unchanged source(s) skipped, %d stale source(s) removed",
+                changed.size(), files.size() - changed.size(), unchanged.get(), stale.size()));
+        getLog().debug(String.format("Reactor cache: %d hit(s) in this execution, %d miss(es) in this session",
+                cache.hits() - hits, cache.misses()));
+
+        report(metrics, !changed.isEmpty());
+
+        if (!failures.isEmpty()) {
+            failures.forEach(failure -> getLog().error(failure.getMessage(), failure.getCause()));
+            throw failures.get(0);
+        }
+
+        addToSources();
+
+    }
+
+    private List<File> generate(File tomlFile, String settings, GenerationMetrics.Entry metrics)
+            throws MojoExecutionException {
+        metrics.started();
+        byte[] content;
+        try {
+            content = Files.readAllBytes(tomlFile.toPath());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to read toml file: " + tomlFile, e);
+        }
+        String fileName = FileUtils.basename(tomlFile.getName()).replaceAll("\\W", "");
+        String sourcesKey = GenerationIndex.fingerprint(content, settings) + ":" + fileName;
+        List<GenerationCache.Output> cached = cache.sources(sourcesKey);
+        if (cached != null) {
+            getLog().debug("Reusing sources generated by another execution for: " + tomlFile);
             try {
-                new Generator(FileUtils.basename(tomlFile.getName()).replaceAll("\\W", ""),
-                        packageName(),
-                        toml,
-                        file -> buildContext.newFileOutputStream(file),
-                        this).generate();
+                return replay(cached, metrics);
             } catch (IOException e) {
-                throw new MojoExecutionException("Unable to generate java sources for: " + tomlFile, e);
+                throw new MojoExecutionException("Unable to write java sources for: " + tomlFile, e);
             }
         }
 
-        addToSources();
+        long start = System.nanoTime();
+        String document;
+        Toml toml;
+        try {
+            String documentKey = GenerationIndex.fingerprint(content, "");
+            document = new String(content, Charsets.UTF_8);
+            toml = cache.toml(documentKey);
+            if (toml == null) {
+                toml = new Toml().read(document);
+                cache.toml(documentKey, toml, document);
+            }
+        } catch (Exception e) {
+            throw new MojoExecutionException("Unable to parse toml file: " + tomlFile, e);
+        }
+        metrics.parsed(System.nanoTime() - start);
+
+        Generator generator = new Generator(fileName,
+                packageName(),
+                toml,
+                document,
+                file -> serialized(file),
+                this);
+        start = System.nanoTime();
+        try {
+            generator.generate();
+        } catch (IOException | RuntimeException e) {
+            throw new MojoExecutionException("Unable to generate java sources for: " + tomlFile, e);
+        }
+        metrics.generated(System.nanoTime() - start, generator);
+
+        unchanged.addAndGet(generator.unchanged());
+        try {
+            cache.sources(sourcesKey, outputs(generator.sources()));
+        } catch (IOException e) {
+            getLog().debug("Unable to cache generated sources for: " + tomlFile, e);
+        }
+        return generator.sources();
+    }
+
+    /**
+     * Reads back what the generator wrote, relative to its output directories, for the {@link GenerationCache}.
+     */
+    private List<GenerationCache.Output> outputs(List<File> sources) throws IOException {
+        List<GenerationCache.Output> outputs = new ArrayList<>();
+        for (File source : sources) {
+            boolean binary = !source.toPath().startsWith(outputDirectory().toPath());
+            File directory = binary ? binaryDirectory() : outputDirectory();
+            outputs.add(new GenerationCache.Output(binary,
+                    directory.toPath().relativize(source.toPath()).toString(),
+                    Files.readAllBytes(source.toPath())));
+        }
+        return outputs;
+    }
 
+    /**
+     * Writes sources another execution generated from the same toml and settings, skipping the unchanged ones.
+     */
+    private List<File> replay(List<GenerationCache.Output> outputs, GenerationMetrics.Entry metrics)
+            throws IOException {
+        long start = System.nanoTime();
+        List<File> sources = new ArrayList<>();
+        long written = 0;
+        int skipped = 0;
+        for (GenerationCache.Output output : outputs) {
+            File source = new File(output.binary() ? binaryDirectory() : outputDirectory(), output.path());
+            sources.add(source);
+            if (source.isFile() && Arrays.equals(output.content(), Files.readAllBytes(source.toPath()))) {
+                skipped++;
+                continue;
+            }
+
+            source.getParentFile().mkdirs();
+            try (OutputStream out = serialized(source)) {
+                out.write(output.content());
+            }
+            written += output.content().length;
+        }
+
+        metrics.cached(System.nanoTime() - start, sources, written, skipped);
+        unchanged.addAndGet(skipped);
+        return sources;
+    }
+
+    /**
+     * Logs the per file timings, at info level only when something was generated, and writes them as json.
+     */
+    private void report(GenerationMetrics metrics, boolean generated) throws MojoExecutionException {
+        for (String line : metrics.summary(basedir))
+            if (generated)
+                getLog().info(line);
+            else
+                getLog().debug(line);
+
+        try {
+            metrics.write(metricsFile());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write generation metrics: " + metricsFile(), e);
+        }
+    }
+
+    /**
+     * Everything besides the toml content that decides whether the generated sources are up to date.
+     */
+    private String settings() {
+        return Arrays.asList(generatorSettings(),
+                outputDirectory(),
+                binaryDirectory())
+                .toString();
+    }
+
+    /**
+     * Everything besides the toml content that changes the generated sources, so executions writing to other
+     * directories can reuse them through the {@link GenerationCache}.
+     */
+    private String generatorSettings() {
+        return Arrays.asList(pluginVersion,
+                packageName(),
+                classPrefix(),
+                classSuffix(),
+                encoding(),
+                tableCase,
+                fieldCase,
+                accessMode(),
+                primitives(),
+                order(),
+                parser(),
+                reloadable(),
+                deduplicate(),
+                merge(),
+                visitor(),
+                binary(),
+                lazy(),
+                registry())
+                .toString();
+    }
+
+    /**
+     * Sources are rendered in memory by the generator threads and handed to the {@link BuildContext}, which is
+     * not thread safe and is shared by the modules a parallel reactor builds at once, one file at a time.
+     */
+    private OutputStream serialized(File file) {
+        return new ByteArrayOutputStream() {
+            @Override
+            public void close() throws IOException {
+                synchronized (buildContext) {
+                    try (OutputStream out = buildContext.newFileOutputStream(file)) {
+                        writeTo(out);
+                    }
+                }
+            }
+        };
     }
 
     protected abstract void addToSources();
 
+    protected abstract File indexFile();
+
+    protected abstract File metricsFile();
+
     protected abstract List<Resource> resources();
 
     @Override
@@ -181,6 +509,67 @@ public abstract class AbstractGeneratorMojo extends AbstractMojo implements Conf
         return caseOf(this.fieldCase, fieldCase);
     }
 
+    @Override
+    public AccessMode accessMode() {
+        return Optional.ofNullable(accessMode)
+                .filter(string -> !Strings.isNullOrEmpty(string))
+                .map(value -> AccessMode.valueOf(value.toUpperCase()))
+                .orElse(AccessMode.DELEGATE);
+    }
+
+    @Override
+    public boolean primitives() {
+        return primitives;
+    }
+
+    @Override
+    public MemberOrder order() {
+        return Optional.ofNullable(order)
+                .filter(string -> !Strings.isNullOrEmpty(string))
+                .map(value -> MemberOrder.valueOf(value.toUpperCase()))
+                .orElse(MemberOrder.DOCUMENT);
+    }
+
+    @Override
+    public boolean parser() {
+        return parser;
+    }
+
+    @Override
+    public boolean reloadable() {
+        return reloadable;
+    }
+
+    @Override
+    public boolean deduplicate() {
+        return deduplicate;
+    }
+
+    @Override
+    public boolean merge() {
+        return merge;
+    }
+
+    @Override
+    public boolean visitor() {
+        return visitor;
+    }
+
+    @Override
+    public boolean binary() {
+        return binary;
+    }
+
+    @Override
+    public boolean lazy() {
+        return lazy;
+    }
+
+    @Override
+    public boolean registry() {
+        return registry;
+    }
+
     private CaseFormat caseOf(String caseFormat, CaseFormat defaultCaseFormat) {
         return Optional.ofNullable(caseFormat)
                 .filter(string -> !Strings.isNullOrEmpty(string))
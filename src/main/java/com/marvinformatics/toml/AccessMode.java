@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+public enum AccessMode {
+
+    /**
+     * Accessors read from the wrapped toml on every call.
+     */
+    DELEGATE,
+
+    /**
+     * Every key is resolved once, at construction, into final fields.
+     */
+    SNAPSHOT,
+
+    /**
+     * Values are baked into the generated classes at build time, nested tables become static singletons and no toml
+     * is read at runtime.
+     */
+    CONSTANT;
+
+}
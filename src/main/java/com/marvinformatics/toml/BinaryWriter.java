@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import com.google.common.base.Charsets;
+import com.moandjiezana.toml.Toml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Compiles a toml into the layout read by the generated <code>ConfigBinary</code>: a header, a table of
+ * deduplicated strings, then one record per table holding a fixed size typed slot for every member of its class,
+ * in member order. The generated constructors know each member's index, so they read values by position.
+ * <p>
+ * Records are written children first, so every table and list offset is known before the slot pointing to it.
+ */
+class BinaryWriter {
+
+    private static final int MAGIC = 0x544f4d4c;
+
+    private static final int VERSION = 1;
+
+    private static final byte NONE = 0;
+
+    private static final byte STRING = 1;
+
+    private static final byte LONG = 2;
+
+    private static final byte DOUBLE = 3;
+
+    private static final byte BOOLEAN = 4;
+
+    private static final byte DATE = 5;
+
+    private static final byte TABLE = 6;
+
+    private static final byte LIST = 7;
+
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+    private final ByteArrayOutputStream records = new ByteArrayOutputStream();
+
+    private final DataOutputStream out = new DataOutputStream(records);
+
+    private BinaryWriter() {
+    }
+
+    static byte[] write(Toml toml, TableClass tableClass) throws IOException {
+        BinaryWriter writer = new BinaryWriter();
+        int root = writer.table(toml, tableClass);
+
+        List<byte[]> encoded = new ArrayList<>();
+        for (String string : writer.strings.keySet())
+            encoded.add(string.getBytes(Charsets.UTF_8));
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(binary);
+        int offset = 20 + 4 * encoded.size();
+        int recordsOffset = offset + encoded.stream().mapToInt(bytes -> 4 + bytes.length).sum();
+
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(recordsOffset);
+        header.writeInt(root);
+        header.writeInt(encoded.size());
+        for (byte[] bytes : encoded) {
+            header.writeInt(offset);
+            offset += 4 + bytes.length;
+        }
+        for (byte[] bytes : encoded) {
+            header.writeInt(bytes.length);
+            header.write(bytes);
+        }
+        writer.records.writeTo(binary);
+        return binary.toByteArray();
+    }
+
+    private int table(Toml toml, TableClass tableClass) throws IOException {
+        Map<String, Object> values = new HashMap<>();
+        for (Entry<String, Object> entry : toml.entrySet())
+            values.put(entry.getKey(), entry.getValue());
+
+        List<TableClass.Member> members = tableClass.members();
+        byte[] tags = new byte[members.size()];
+        long[] payloads = new long[members.size()];
+        for (int i = 0; i < members.size(); i++) {
+            TableClass.Member member = members.get(i);
+            Object value = values.get(member.key());
+            if (member.table() != null && value instanceof Toml) {
+                tags[i] = TABLE;
+                payloads[i] = table((Toml) value, member.table());
+            } else if (member.element() != null && value instanceof List) {
+                tags[i] = LIST;
+                payloads[i] = list((List<?>) value, member.element());
+            } else {
+                slot(value, tags, payloads, i);
+            }
+        }
+        return record(tags, payloads);
+    }
+
+    private int list(List<?> values, TableClass element) throws IOException {
+        byte[] tags = new byte[values.size()];
+        long[] payloads = new long[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            if (element != null && value instanceof Toml) {
+                tags[i] = TABLE;
+                payloads[i] = table((Toml) value, element);
+            } else {
+                slot(value, tags, payloads, i);
+            }
+        }
+        return record(tags, payloads);
+    }
+
+    private void slot(Object value, byte[] tags, long[] payloads, int index) throws IOException {
+        if (value instanceof String) {
+            tags[index] = STRING;
+            payloads[index] = strings.computeIfAbsent((String) value, string -> strings.size());
+        } else if (value instanceof Long) {
+            tags[index] = LONG;
+            payloads[index] = (Long) value;
+        } else if (value instanceof Double) {
+            tags[index] = DOUBLE;
+            payloads[index] = Double.doubleToRawLongBits((Double) value);
+        } else if (value instanceof Boolean) {
+            tags[index] = BOOLEAN;
+            payloads[index] = (Boolean) value ? 1 : 0;
+        } else if (value instanceof Date) {
+            tags[index] = DATE;
+            payloads[index] = ((Date) value).getTime();
+        } else if (value instanceof List) {
+            tags[index] = LIST;
+            payloads[index] = list((List<?>) value, null);
+        } else {
+            tags[index] = NONE;
+        }
+    }
+
+    private int record(byte[] tags, long[] payloads) throws IOException {
+        int offset = out.size();
+        out.writeInt(tags.length);
+        for (int i = 0; i < tags.length; i++) {
+            out.writeByte(tags[i]);
+            out.writeLong(payloads[i]);
+        }
+        return offset;
+    }
+
+}
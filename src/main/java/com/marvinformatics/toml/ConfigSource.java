@@ -34,4 +34,28 @@ public interface ConfigSource {
 
     File outputDirectory();
 
+    AccessMode accessMode();
+
+    boolean primitives();
+
+    MemberOrder order();
+
+    boolean parser();
+
+    boolean reloadable();
+
+    boolean deduplicate();
+
+    boolean merge();
+
+    boolean visitor();
+
+    boolean binary();
+
+    File binaryDirectory();
+
+    boolean lazy();
+
+    boolean registry();
+
 }
@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Position of every key inside its table, as it appears in the toml source. toml4j keeps tables in hash maps, so
+ * this is recovered with a light line scan of the document instead.
+ */
+class DocumentOrder {
+
+    private final Map<List<String>, Map<String, Integer>> keys = new HashMap<>();
+
+    private DocumentOrder() {
+    }
+
+    static DocumentOrder of(String document) {
+        DocumentOrder order = new DocumentOrder();
+        if (document == null)
+            return order;
+
+        List<String> table = Collections.emptyList();
+        String multilineString = null;
+        int depth = 0;
+        for (String line : document.split("\r?\n")) {
+            if (multilineString != null) {
+                if (line.contains(multilineString))
+                    multilineString = null;
+                continue;
+            }
+
+            if (depth > 0) {
+                depth += depth(line);
+                continue;
+            }
+
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#"))
+                continue;
+
+            if (trimmed.startsWith("[")) {
+                String header = trimmed.startsWith("[[")
+                        ? trimmed.substring(2, Math.max(2, trimmed.indexOf("]]")))
+                        : trimmed.substring(1, Math.max(1, trimmed.indexOf(']')));
+                table = split(header);
+                for (int i = 0; i < table.size(); i++)
+                    order.add(table.subList(0, i), table.get(i));
+                continue;
+            }
+
+            int equals = trimmed.indexOf('=');
+            if (equals < 0)
+                continue;
+
+            order.add(table, trimmed.substring(0, equals).trim());
+
+            String value = trimmed.substring(equals + 1).trim();
+            for (String quote : new String[] { "\"\"\"", "'''" })
+                if (value.startsWith(quote) && value.indexOf(quote, 3) < 0)
+                    multilineString = quote;
+            if (multilineString == null)
+                depth = Math.max(0, depth(value));
+        }
+        return order;
+    }
+
+    Comparator<String> comparator(List<String> table) {
+        Map<String, Integer> positions = keys.getOrDefault(table, Collections.emptyMap());
+        return Comparator.<String> comparingInt(key -> positions.getOrDefault(key, Integer.MAX_VALUE))
+                .thenComparing(Comparator.naturalOrder());
+    }
+
+    private void add(List<String> table, String key) {
+        Map<String, Integer> tableKeys = keys.computeIfAbsent(new ArrayList<>(table), path -> new HashMap<>());
+        tableKeys.putIfAbsent(key, tableKeys.size());
+    }
+
+    private static int depth(String value) {
+        int depth = 0;
+        Character quote = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (quote != null) {
+                if (c == '\\' && quote == '"')
+                    i++;
+                else if (c == quote)
+                    quote = null;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '#') {
+                break;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            }
+        }
+        return depth;
+    }
+
+    private static List<String> split(String path) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder part = new StringBuilder();
+        boolean quoted = false;
+        for (char c : path.toCharArray()) {
+            if (c == '"')
+                quoted = !quoted;
+            if (c == '.' && !quoted) {
+                parts.add(part.toString().trim());
+                part.setLength(0);
+            } else {
+                part.append(c);
+            }
+        }
+        parts.add(part.toString().trim());
+        return parts;
+    }
+
+}
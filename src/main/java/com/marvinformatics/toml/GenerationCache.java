@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import com.moandjiezana.toml.Toml;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+/**
+ * Shares parsed tomls and generated sources between the executions of a maven session, so a toml included by
+ * many modules of a reactor is only parsed and generated once. The plugin realm, and so this singleton, is shared
+ * by every module using the same plugin version, including the ones built by other <code>-T</code> threads.
+ * <p>
+ * Entries are keyed by content fingerprints, kept up to a memory budget and evicted least recently used first.
+ * Everything is dropped when a new session starts.
+ */
+@Named
+@Singleton
+public class GenerationCache {
+
+    /**
+     * A generated file, relative to the output directory it belongs to.
+     */
+    static class Output {
+
+        private final boolean binary;
+
+        private final String path;
+
+        private final byte[] content;
+
+        Output(boolean binary, String path, byte[] content) {
+            this.binary = binary;
+            this.path = path;
+            this.content = content;
+        }
+
+        /**
+         * @return whether the file goes to the binary directory rather than the sources output directory
+         */
+        public boolean binary() {
+            return binary;
+        }
+
+        public String path() {
+            return path;
+        }
+
+        public byte[] content() {
+            return content;
+        }
+
+    }
+
+    private static class Cached {
+
+        private final Object value;
+
+        private final long weight;
+
+        Cached(Object value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+
+    }
+
+    private final Map<String, Cached> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private WeakReference<Object> session = new WeakReference<>(null);
+
+    private long budget;
+
+    private long weight;
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * Starts using the cache for an execution of <code>session</code>, with at most <code>budget</code> bytes held.
+     */
+    synchronized void open(Object session, long budget) {
+        if (this.session.get() != session) {
+            entries.clear();
+            weight = 0;
+            hits = 0;
+            misses = 0;
+            this.session = new WeakReference<>(session);
+        }
+        this.budget = budget;
+        evict();
+    }
+
+    Toml toml(String fingerprint) {
+        return (Toml) get("toml:" + fingerprint);
+    }
+
+    void toml(String fingerprint, Toml toml, String document) {
+        put("toml:" + fingerprint, toml, 2L * document.length());
+    }
+
+    @SuppressWarnings("unchecked")
+    List<Output> sources(String fingerprint) {
+        return (List<Output>) get("sources:" + fingerprint);
+    }
+
+    void sources(String fingerprint, List<Output> outputs) {
+        put("sources:" + fingerprint, outputs, outputs.stream()
+                .mapToLong(output -> output.content().length)
+                .sum());
+    }
+
+    synchronized long hits() {
+        return hits;
+    }
+
+    synchronized long misses() {
+        return misses;
+    }
+
+    private synchronized Object get(String key) {
+        Cached cached = entries.get(key);
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return cached.value;
+    }
+
+    private synchronized void put(String key, Object value, long weight) {
+        if (weight > budget)
+            return;
+
+        Cached previous = entries.put(key, new Cached(value, weight));
+        if (previous != null)
+            this.weight -= previous.weight;
+        this.weight += weight;
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Cached> eldest = entries.values().iterator();
+        while (weight > budget && eldest.hasNext()) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+        }
+    }
+
+}
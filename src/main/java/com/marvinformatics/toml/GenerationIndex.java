@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Remembers, for every toml file, the fingerprint it was last generated with and the java sources it produced.
+ */
+class GenerationIndex {
+
+    static class Entry {
+
+        private final String fingerprint;
+
+        private final List<File> outputs;
+
+        Entry(String fingerprint, List<File> outputs) {
+            this.fingerprint = fingerprint;
+            this.outputs = outputs;
+        }
+
+        public String fingerprint() {
+            return fingerprint;
+        }
+
+        public List<File> outputs() {
+            return outputs;
+        }
+
+    }
+
+    private final File file;
+
+    private final Map<File, Entry> entries = new TreeMap<>();
+
+    private GenerationIndex(File file) {
+        this.file = file;
+    }
+
+    static GenerationIndex load(File file) throws IOException {
+        GenerationIndex index = new GenerationIndex(file);
+        if (!file.isFile())
+            return index;
+
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+
+        for (String source : properties.stringPropertyNames()) {
+            String[] values = properties.getProperty(source).split(File.pathSeparator);
+
+            List<File> outputs = new ArrayList<>();
+            for (int i = 1; i < values.length; i++)
+                outputs.add(new File(values[i]));
+            index.entries.put(new File(source), new Entry(values[0], outputs));
+        }
+        return index;
+    }
+
+    static String fingerprint(File source, String settings) throws IOException {
+        return fingerprint(Files.readAllBytes(source.toPath()), settings);
+    }
+
+    static String fingerprint(byte[] content, String settings) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(settings.getBytes(Charsets.UTF_8));
+            digest.update(content);
+
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest())
+                hex.append(String.format("%02x", b));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    boolean isUpToDate(File source, String fingerprint) {
+        Entry entry = entries.get(source);
+        if (entry == null || !entry.fingerprint().equals(fingerprint))
+            return false;
+
+        return entry.outputs().stream()
+                .allMatch(output -> output.isFile());
+    }
+
+    Set<File> sources() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    Entry get(File source) {
+        return entries.get(source);
+    }
+
+    Entry remove(File source) {
+        return entries.remove(source);
+    }
+
+    void put(File source, String fingerprint, Collection<File> outputs) {
+        entries.put(source, new Entry(fingerprint, new ArrayList<>(outputs)));
+    }
+
+    boolean isOutput(File output) {
+        return entries.values().stream()
+                .anyMatch(entry -> entry.outputs().contains(output));
+    }
+
+    void save() throws IOException {
+        Properties properties = new Properties();
+        for (Map.Entry<File, Entry> entry : entries.entrySet()) {
+            List<Object> values = new ArrayList<>();
+            values.add(entry.getValue().fingerprint());
+            values.addAll(entry.getValue().outputs());
+            properties.setProperty(entry.getKey().getPath(), Joiner.on(File.pathSeparatorChar).join(values));
+        }
+
+        file.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, "toml-maven-plugin generation index");
+        }
+    }
+
+}
@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import com.google.common.base.Charsets;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times every toml file of an execution, from checking whether it changed to writing its sources, and reports the
+ * figures as a log table and as a json file. Each generation is also recorded as a flight recorder event when the
+ * plugin was built and runs on a JDK shipping <code>jdk.jfr</code>.
+ */
+class GenerationMetrics {
+
+    private static final Method START = flightRecorder("start");
+
+    private static final Method FINISH = flightRecorder("finish", Object.class, File.class, long.class, long.class,
+            int.class, long.class, int.class);
+
+    enum Status {
+        UP_TO_DATE, GENERATED, CACHED, FAILED
+    }
+
+    /**
+     * The figures of one toml file. Filled by the thread generating it, read once its task completed.
+     */
+    static class Entry {
+
+        private final File source;
+
+        private Status status = Status.UP_TO_DATE;
+
+        private long scanTime;
+
+        private long parseTime;
+
+        private long generateTime;
+
+        private int classes;
+
+        private long bytes;
+
+        private int skipped;
+
+        private Object event;
+
+        Entry(File source) {
+            this.source = source;
+        }
+
+        public File source() {
+            return source;
+        }
+
+        public Status status() {
+            return status;
+        }
+
+        void scanned(long nanos) {
+            this.scanTime = nanos;
+        }
+
+        void started() {
+            if (START != null)
+                this.event = invoke(START);
+        }
+
+        void parsed(long nanos) {
+            this.parseTime = nanos;
+        }
+
+        void generated(long nanos, Generator generator) {
+            finished(Status.GENERATED, nanos, generator.sources(), generator.written(), generator.unchanged());
+        }
+
+        /**
+         * Records sources copied from the {@link GenerationCache} instead of being generated.
+         */
+        void cached(long nanos, List<File> sources, long written, int unchanged) {
+            finished(Status.CACHED, nanos, sources, written, unchanged);
+        }
+
+        private void finished(Status status, long nanos, List<File> sources, long written, int unchanged) {
+            this.status = status;
+            this.generateTime = nanos;
+            this.classes = (int) sources.stream()
+                    .filter(file -> file.getName().endsWith(".java"))
+                    .count();
+            this.bytes = written;
+            this.skipped = unchanged;
+
+            if (event != null)
+                invoke(FINISH, event, source, parseTime, generateTime, classes, bytes, skipped);
+        }
+
+        void failed() {
+            this.status = Status.FAILED;
+        }
+
+    }
+
+    private final Map<File, Entry> entries = new LinkedHashMap<>();
+
+    private long scanTime;
+
+    void scanned(long nanos) {
+        this.scanTime = nanos;
+    }
+
+    Entry entry(File source) {
+        return entries.computeIfAbsent(source, Entry::new);
+    }
+
+    /**
+     * @return one line per generated toml file and a total, paths relative to <code>basedir</code>
+     */
+    List<String> summary(File basedir) {
+        String format = "%-40s %10s %10s %10s %8s %10s %8s";
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(format, "File", "Scan ms", "Parse ms", "Gen ms", "Classes", "Bytes", "Skipped"));
+
+        Entry total = new Entry(basedir);
+        total.scanTime = scanTime;
+        for (Entry entry : entries.values()) {
+            total.scanTime += entry.scanTime;
+            total.parseTime += entry.parseTime;
+            total.generateTime += entry.generateTime;
+            total.classes += entry.classes;
+            total.bytes += entry.bytes;
+            total.skipped += entry.skipped;
+            if (entry.status == Status.GENERATED || entry.status == Status.CACHED)
+                lines.add(String.format(format,
+                        relative(basedir, entry.source) + (entry.status == Status.CACHED ? " (cached)" : ""),
+                        millis(entry.scanTime), millis(entry.parseTime), millis(entry.generateTime),
+                        entry.classes, entry.bytes, entry.skipped));
+        }
+        lines.add(String.format(format, "Total (" + entries.size() + " files)", millis(total.scanTime),
+                millis(total.parseTime), millis(total.generateTime), total.classes, total.bytes, total.skipped));
+        return lines;
+    }
+
+    void write(File file) throws IOException {
+        file.getParentFile().mkdirs();
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), Charsets.UTF_8)) {
+            out.write("{\n");
+            out.write("  \"scanNanos\": " + scanTime + ",\n");
+            out.write("  \"files\": [");
+            String separator = "\n";
+            for (Entry entry : entries.values()) {
+                out.write(separator);
+                out.write("    {\"file\": " + quote(entry.source.getPath())
+                        + ", \"status\": " + quote(entry.status.name())
+                        + ", \"scanNanos\": " + entry.scanTime
+                        + ", \"parseNanos\": " + entry.parseTime
+                        + ", \"generateNanos\": " + entry.generateTime
+                        + ", \"classes\": " + entry.classes
+                        + ", \"bytes\": " + entry.bytes
+                        + ", \"skipped\": " + entry.skipped + "}");
+                separator = ",\n";
+            }
+            out.write("\n  ]\n");
+            out.write("}\n");
+        }
+    }
+
+    private static String relative(File basedir, File file) {
+        if (basedir == null || !file.toPath().startsWith(basedir.toPath()))
+            return file.getPath();
+        return basedir.toPath().relativize(file.toPath()).toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000D);
+    }
+
+    private static String quote(String string) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : string.toCharArray()) {
+            if (c == '"' || c == '\\')
+                quoted.append('\\').append(c);
+            else if (c < 0x20)
+                quoted.append(String.format("\\u%04x", (int) c));
+            else
+                quoted.append(c);
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * @return the static method of <code>GenerationEvent</code>, or null when it was not compiled in or the JVM has
+     *         no flight recorder
+     */
+    private static Method flightRecorder(String name, Class<?>... parameterTypes) {
+        try {
+            return Class.forName("com.marvinformatics.toml.GenerationEvent", true,
+                    GenerationMetrics.class.getClassLoader())
+                    .getDeclaredMethod(name, parameterTypes);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Recording is best effort, a failing event never fails the build.
+     */
+    private static Object invoke(Method method, Object... args) {
+        try {
+            return method.invoke(null, args);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+}
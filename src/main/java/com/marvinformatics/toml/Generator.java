@@ -16,15 +16,22 @@
 package com.marvinformatics.toml;
 
 import com.google.common.base.CaseFormat;
+import com.google.common.base.Charsets;
 import com.google.common.base.Strings;
+import com.google.common.collect.BiMap;
+import com.google.common.collect.ImmutableBiMap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
 import com.moandjiezana.toml.Toml;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class Generator {
@@ -48,93 +55,1953 @@ public class Generator {
             "synchronized", "this", "throw", "throws", "transient", "true",
             "try", "void", "volatile", "while");
 
+    private static final BiMap<Class<?>, String> PRIMITIVES = ImmutableBiMap.<Class<?>, String> of(
+            Long.class, "long",
+            Double.class, "double",
+            Boolean.class, "boolean");
+
+    private static final Map<String, String> PRIMITIVE_DEFAULTS = ImmutableMap.of(
+            "long", "0L",
+            "double", "0D",
+            "boolean", "false");
+
+    private static final String READER = "TomlReader";
+
+    private static final String RELOADABLE = "Reloadable";
+
+    private static final String TABLE_LIST = "TableList";
+
+    private static final String VISITOR = "ConfigVisitor";
+
+    private static final String BINARY = "ConfigBinary";
+
+    private static final String LAZY = "LazyToml";
+
+    private static final String REGISTRY = "ConfigRegistry";
+
+    /**
+     * Members per generated class before a table is split into a chain of part superclasses; keeps every class well
+     * below the JVM limits of 64KB per method and 65535 constant pool entries.
+     */
+    static final int PART_SIZE = 500;
+
     private final String fileName;
 
     private final String packageName;
 
     private final Toml toml;
 
+    private final DocumentOrder documentOrder;
+
     private final OutputCreator fileStreamCreator;
     private final ConfigSource config;
 
+    private final List<File> sources = new ArrayList<>();
+
+    private final Set<TableClass> lazyClasses = new HashSet<>();
+
+    private int unchanged;
+
+    private long written;
+
     public Generator(String fileName,
             String packageName,
             Toml toml,
             OutputCreator fileStreamCreator,
             ConfigSource config) {
+        this(fileName, packageName, toml, null, fileStreamCreator, config);
+    }
+
+    /**
+     * @param document
+     *            toml source <code>toml</code> was parsed from, used to keep members in document order
+     */
+    public Generator(String fileName,
+            String packageName,
+            Toml toml,
+            String document,
+            OutputCreator fileStreamCreator,
+            ConfigSource config) {
         super();
         this.fileName = fileName;
         this.packageName = packageName;
         this.toml = toml;
+        this.documentOrder = config.order() == MemberOrder.DOCUMENT ? DocumentOrder.of(document) : null;
         this.fileStreamCreator = fileStreamCreator;
         this.config = config;
     }
 
     public void generate() throws IOException {
+        if (config.parser() && config.accessMode() != AccessMode.SNAPSHOT)
+            throw new IllegalArgumentException("toml.parser requires toml.accessMode SNAPSHOT");
+        if (config.merge() && config.accessMode() != AccessMode.SNAPSHOT)
+            throw new IllegalArgumentException("toml.merge requires toml.accessMode SNAPSHOT");
+        if (config.binary() && config.accessMode() != AccessMode.SNAPSHOT)
+            throw new IllegalArgumentException("toml.binary requires toml.accessMode SNAPSHOT");
+        if (config.reloadable() && config.accessMode() == AccessMode.CONSTANT)
+            throw new IllegalArgumentException("toml.reloadable can not be used with toml.accessMode CONSTANT");
+        if (config.deduplicate() && config.accessMode() == AccessMode.CONSTANT)
+            throw new IllegalArgumentException("toml.deduplicate can not be used with toml.accessMode CONSTANT");
+        if (config.lazy() && config.accessMode() != AccessMode.DELEGATE)
+            throw new IllegalArgumentException("toml.lazy requires toml.accessMode DELEGATE");
+        if (config.registry() && !config.merge())
+            throw new IllegalArgumentException("toml.registry requires toml.merge");
+
+        List<TableClass> plan = new ArrayList<>();
+        plan(fileName, packageName, Collections.singletonList(toml), Collections.emptyList(), plan);
+
+        TableClass root = plan.get(0);
+        for (TableClass tableClass : plan) {
+            PerfectHash paths = PerfectHash.of(tableClass.members().stream()
+                    .map(member -> member.key().hashCode())
+                    .collect(Collectors.toList()));
+            List<TableClass> parts = parts(tableClass);
+            if (config.lazy() && tableClass == root) {
+                lazyClasses.add(tableClass);
+                lazyClasses.addAll(parts);
+            }
+            for (int i = 0; i < parts.size(); i++) {
+                int index = i;
+                TableClass part = parts.get(i);
+                TableClass superPart = i == 0 ? null : parts.get(i - 1);
+                write(part.packageName(), part.className(), pw -> renderPart(pw, part, superPart, index, paths));
+            }
+
+            if (parts.isEmpty())
+                write(tableClass.packageName(), tableClass.className(),
+                        pw -> render(pw, tableClass, tableClass == root, paths));
+            else
+                write(tableClass.packageName(), tableClass.className(),
+                        pw -> renderSplit(pw, tableClass, tableClass == root, parts, paths));
+        }
+
+        if (plan.stream().flatMap(tableClass -> tableClass.members().stream()).anyMatch(member -> member.element() != null))
+            writeTemplate(TABLE_LIST);
+        if (config.parser())
+            writeTemplate(READER);
+        if (config.reloadable())
+            writeTemplate(RELOADABLE);
+        if (config.visitor())
+            writeTemplate(VISITOR);
+        if (config.binary()) {
+            writeTemplate(BINARY);
+            writeBinary(root);
+        }
+        if (config.lazy())
+            writeTemplate(LAZY);
+        if (config.registry())
+            writeTemplate(REGISTRY);
+    }
+
+    /**
+     * Writes the values of the toml next to the root class, as a resource, for <code>loadBinary()</code>.
+     */
+    private void writeBinary(TableClass root) throws IOException {
+        File destination = new File(config.binaryDirectory(), root.packageName().replace(".", "/"));
+        destination.mkdirs();
+
+        writeIfChanged(new File(destination, root.className() + ".tomlbin"), BinaryWriter.write(toml, root),
+                root.qualifiedName() + " binary");
+    }
+
+    private void writeTemplate(String className) throws IOException {
+        String template;
+        try (InputStream in = Generator.class.getResourceAsStream(className + ".template")) {
+            template = new String(ByteStreams.toByteArray(in), Charsets.UTF_8);
+        }
+
+        write(packageName, className, pw -> {
+            pw.printf("package %s;", packageName);
+            pw.println();
+            pw.print(template);
+        });
+    }
+
+    /**
+     * @param tomls
+     *            every table the planned class stands for: one for plain tables, each entry of an array of tables for
+     *            element classes, which get the union of the keys of all their entries
+     */
+    private TableClass plan(String name, String packageName, List<Toml> tomls, List<String> path, List<TableClass> plan) {
+        return plan(name, asClassName(name), packageName, tomls, path, plan);
+    }
+
+    private TableClass plan(String name, String className, String packageName, List<Toml> tomls, List<String> path,
+            List<TableClass> plan) {
+        TableClass tableClass = new TableClass(packageName, className, tomls.get(0));
+        plan.add(tableClass);
+
+        Map<String, List<Object>> values = new HashMap<>();
+        for (Toml toml : tomls)
+            for (Entry<String, Object> entry : toml.entrySet())
+                values.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).add(entry.getValue());
+
+        String subpackage = appendPackage(packageName, name);
+        List<String> keys = new ArrayList<>(values.keySet());
+        keys.sort(keyOrder(path));
+        Map<String, TableClass> shared = config.deduplicate()
+                ? share(name, subpackage, values, keys, path, plan)
+                : Collections.emptyMap();
+        for (String key : keys) {
+            String fieldName = escapeReservedWords(config
+                    .fieldCase(fileCaseFormat(key))
+                    .to(CaseFormat.LOWER_CAMEL, key));
+
+            Object value = memberValue(append(path, key), values.get(key));
+
+            TableClass table = null;
+            TableClass element = null;
+            if (shared.containsKey(key))
+                table = shared.get(key);
+            else if (value instanceof Toml)
+                table = plan(key, subpackage, tables(values.get(key)), append(path, key), plan);
+            else if (isTableArray(value) && config.accessMode() != AccessMode.CONSTANT)
+                element = plan(key, subpackage, tables(values.get(key)), append(path, key), plan);
+
+            tableClass.add(new TableClass.Member(key, fieldName.replaceAll("\\W", ""), value, table, element));
+        }
+
+        if (shared.keySet().containsAll(keys) && new HashSet<>(shared.values()).size() == 1)
+            tableClass.valueClass(shared.values().iterator().next());
+        return tableClass;
+    }
+
+    /**
+     * Plans one class for every group of identically shaped sibling tables, named after their parent table.
+     *
+     * @return the shared class of each deduplicated sibling, by key
+     */
+    private Map<String, TableClass> share(String name, String packageName, Map<String, List<Object>> values,
+            List<String> keys, List<String> path, List<TableClass> plan) {
+        Map<String, List<String>> shapes = new LinkedHashMap<>();
+        for (String key : keys) {
+            Object value = values.get(key).get(0);
+            if (value instanceof Toml)
+                shapes.computeIfAbsent(shape((Toml) value), shape -> new ArrayList<>()).add(key);
+        }
+
+        Map<String, TableClass> shared = new HashMap<>();
+        for (List<String> siblings : shapes.values()) {
+            if (siblings.size() < 2)
+                continue;
+
+            String entry = shared.isEmpty() ? "entry" : "entry_" + (new HashSet<>(shared.values()).size() + 1);
+            List<Object> tables = siblings.stream()
+                    .flatMap(key -> values.get(key).stream())
+                    .collect(Collectors.toList());
+            TableClass tableClass = plan(entry, asClassName(name + "_" + entry), packageName, tables(tables),
+                    append(path, siblings.get(0)), plan);
+            siblings.forEach(key -> shared.put(key, tableClass));
+        }
+        return shared;
+    }
+
+    /**
+     * @return a signature equal for two tables exactly when they would generate the same accessors
+     */
+    private String shape(Toml toml) {
+        List<Entry<String, Object>> entries = new ArrayList<>(toml.entrySet());
+        entries.sort(Comparator.comparing(entry -> entry.getKey()));
+
+        StringBuilder shape = new StringBuilder("{");
+        for (Entry<String, Object> entry : entries) {
+            Object value = entry.getValue();
+            shape.append(stringLiteral(entry.getKey())).append('=');
+            if (value instanceof Toml)
+                shape.append(shape((Toml) value));
+            else if (isTableArray(value))
+                shape.append(tables(Collections.singletonList(value)).stream()
+                        .map(this::shape)
+                        .distinct()
+                        .sorted()
+                        .collect(Collectors.joining(",", "[", "]")));
+            else
+                shape.append(type(new TableClass.Member(entry.getKey(), entry.getKey(), value, null, null), false));
+            shape.append(';');
+        }
+        return shape.append('}').toString();
+    }
+
+    /**
+     * @return the value typing a member of a class standing for several tables, which must all agree on its type
+     *         since a single accessor returns it for each of them. Empty arrays fit any array.
+     */
+    private Object memberValue(List<String> path, List<Object> values) {
+        String key = path.get(path.size() - 1);
+        String type = null;
+        for (Object value : values) {
+            if (isEmptyList(value))
+                continue;
+            String valueType = type(new TableClass.Member(key, key, value, null, null), false);
+            if (type == null)
+                type = valueType;
+            else if (!type.equals(valueType))
+                throw new IllegalArgumentException(String.format(
+                        "Key %s is %s in one table and %s in another, tables of an array must agree on its type",
+                        String.join(".", path), type, valueType));
+        }
+        return values.get(0);
+    }
+
+    private static boolean isEmptyList(Object value) {
+        return value instanceof List && ((List<?>) value).isEmpty();
+    }
+
+    private boolean isTableArray(Object value) {
+        return value instanceof List && Toml.class.equals(listType((List<?>) value));
+    }
+
+    /**
+     * @return the tables found in <code>values</code>, with arrays of tables flattened into their entries
+     */
+    private static List<Toml> tables(List<Object> values) {
+        List<Toml> tables = new ArrayList<>();
+        for (Object value : values)
+            if (value instanceof Toml)
+                tables.add((Toml) value);
+            else if (value instanceof List)
+                for (Object item : (List<?>) value)
+                    if (item instanceof Toml)
+                        tables.add((Toml) item);
+        return tables;
+    }
+
+    private Comparator<String> keyOrder(List<String> path) {
+        if (documentOrder == null)
+            return Comparator.naturalOrder();
+        return documentOrder.comparator(path);
+    }
+
+    private static List<String> append(List<String> path, String key) {
+        List<String> child = new ArrayList<>(path);
+        child.add(key);
+        return child;
+    }
+
+    private void write(String packageName, String className, Consumer<PrintWriter> renderer) throws IOException {
         final File destination = new File(config.outputDirectory(), packageName.replace(".", "/"));
 
         destination.mkdirs();
 
-        String className = asClassName(fileName);
         log.info("Generating source for " + className);
 
-        File targetFile = new File(destination, className + ".java");
-        try (OutputStream fileStrean = fileStreamCreator.openStream(targetFile);
-                PrintWriter pw = new PrintWriter(new OutputStreamWriter(fileStrean, config.encoding()));) {
-            log.info("Writting {}.{} at {} ", packageName, className, targetFile.getAbsolutePath());
+        ByteArrayOutputStream source = new ByteArrayOutputStream();
+        try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(source, config.encoding()));) {
+            renderer.accept(pw);
+        }
 
-            pw.printf("package %s;", packageName);
+        writeIfChanged(new File(destination, className + ".java"), source.toByteArray(), packageName + "." + className);
+    }
+
+    private void writeIfChanged(File targetFile, byte[] content, String description) throws IOException {
+        sources.add(targetFile);
+        if (targetFile.isFile() && Arrays.equals(content, Files.readAllBytes(targetFile.toPath()))) {
+            log.debug("Skipping unchanged {} at {} ", description, targetFile.getAbsolutePath());
+            unchanged++;
+            return;
+        }
+
+        try (OutputStream fileStrean = fileStreamCreator.openStream(targetFile)) {
+            log.info("Writting {} at {} ", description, targetFile.getAbsolutePath());
+            fileStrean.write(content);
+        }
+        written += content.length;
+    }
+
+    private void render(PrintWriter pw, TableClass tableClass, boolean root, PerfectHash paths) {
+        String className = tableClass.className();
+
+        pw.printf("package %s;", tableClass.packageName());
+        pw.println();
+
+        pw.printf("public class %s {\n", className);
+        pw.println();
+
+        if (config.accessMode() == AccessMode.CONSTANT) {
+            constants(pw, tableClass);
+        } else {
+            fields(pw, tableClass);
+            constructors(pw, tableClass);
+            if (config.binary())
+                binaryLoaders(pw, tableClass, 0);
+            if (config.merge())
+                merge(pw, tableClass);
+            if (config.registry() && root)
+                registryFactories(pw, tableClass);
+            if (config.binary() && root)
+                binaryFactories(pw, tableClass);
+            if (lazyClasses.contains(tableClass))
+                lazyFactories(pw, tableClass);
+        }
+
+        if (config.parser()) {
+            if (root)
+                parse(pw, tableClass);
+            builder(pw, tableClass);
+        }
+
+        for (TableClass.Member member : tableClass.members()) {
+            log.debug("Adding field {}:{}", member.name(), type(member, false));
+            accessors(pw, member, lazyClasses.contains(tableClass));
+            pw.println();
+        }
+
+        if (tableClass.valueClass() != null)
+            mapAccessor(pw, tableClass);
+
+        if (config.accessMode() != AccessMode.CONSTANT)
+            arrayConverters(pw, tableClass);
+
+        pathLookup(pw, tableClass, paths);
+        if (!tableClass.members().isEmpty()) {
+            pathSlot(pw, paths);
+            pathCases(pw, tableClass, paths, "  private java.lang.Object get(int slot, java.lang.String path, int from, int to) {\n");
+        }
+
+        if (config.visitor())
+            forEach(pw, tableClass, false);
+
+        entries(pw, tableClass);
+
+        pw.printf("}\n");
+    }
+
+    /**
+     * Splits tables with more than {@link #PART_SIZE} members, so each part can be rendered as its own class.
+     *
+     * @return the parts, in inheritance order, or an empty list when <code>tableClass</code> fits in a single class
+     */
+    private List<TableClass> parts(TableClass tableClass) {
+        List<TableClass.Member> members = tableClass.members();
+        if (members.size() <= PART_SIZE)
+            return Collections.emptyList();
+
+        List<TableClass> parts = new ArrayList<>();
+        for (int start = 0; start < members.size(); start += PART_SIZE) {
+            TableClass part = new TableClass(tableClass.packageName(),
+                    tableClass.className() + "Part" + parts.size(), tableClass.toml());
+            members.subList(start, Math.min(start + PART_SIZE, members.size())).forEach(part::add);
+            parts.add(part);
+        }
+        return parts;
+    }
+
+    /**
+     * Renders a table too large for a single class. Fields, initialization and accessors live in the part
+     * superclasses and are inherited, so the public API is the same as
+     * {@link #render(PrintWriter, TableClass, boolean, PerfectHash)}.
+     */
+    private void renderSplit(PrintWriter pw, TableClass tableClass, boolean root, List<TableClass> parts,
+            PerfectHash paths) {
+        String className = tableClass.className();
+        String lastPart = parts.get(parts.size() - 1).className();
+
+        pw.printf("package %s;", tableClass.packageName());
+        pw.println();
+
+        pw.printf("public class %s extends %s {\n", className, lastPart);
+        pw.println();
+
+        if (config.accessMode() == AccessMode.CONSTANT) {
+            pw.printf("  private static final java.util.Map<java.lang.String,java.lang.Object> ENTRIES;\n");
+            pw.println();
+            pw.printf("  static {\n");
+            pw.printf("    java.util.Map<java.lang.String,java.lang.Object> map = new java.util.LinkedHashMap<java.lang.String,java.lang.Object>();\n");
+            for (TableClass part : parts)
+                pw.printf("    %s.entries(map);\n", part.className());
+            pw.printf("    ENTRIES = java.util.Collections.unmodifiableMap(map);\n");
+            pw.printf("  }\n");
             pw.println();
 
-            pw.printf("public class %s {\n", className);
+            pw.printf("  public static final %s INSTANCE = new %s();\n", className, className);
             pw.println();
 
-            pw.printf("  private final com.moandjiezana.toml.Toml toml;\n");
+            pw.printf("  private %s () {\n", className);
+            pw.printf("  }\n");
             pw.println();
+        } else {
+            boolean snapshotMap = tableClass.valueClass() != null && config.accessMode() == AccessMode.SNAPSHOT;
+            mapField(pw, tableClass);
+            if (tableClass.valueClass() != null)
+                pw.println();
 
+            boolean lazy = lazyClasses.contains(tableClass);
             pw.printf("  public %s (com.moandjiezana.toml.Toml toml) {\n", className);
-            pw.printf("    this.toml = toml;\n", className);
-            pw.printf("  }\n", className);
+            pw.printf(lazy ? "    super(toml, null);\n" : "    super(toml);\n");
+            if (snapshotMap)
+                pw.printf("    this.asMap = tables(toml);\n");
+            pw.printf("  }\n");
             pw.println();
 
+            if (lazy) {
+                pw.printf("  public %s (%s.%s lazy) {\n", className, packageName, LAZY);
+                pw.printf("    super(lazy.root(), lazy);\n");
+                pw.printf("  }\n");
+                pw.println();
+
+                lazyFactories(pw, tableClass);
+            }
+
+            if (config.parser()) {
+                pw.printf("  public %s (Builder builder) {\n", className);
+                pw.printf("    super(builder);\n");
+                if (snapshotMap)
+                    pw.printf("    this.asMap = null;\n");
+                pw.printf("  }\n");
+                pw.println();
+            }
+
+            if (config.binary()) {
+                pw.printf("  public %s (%s.%s binary, int offset) {\n", className, packageName, BINARY);
+                pw.printf("    super(binary, offset);\n");
+                if (snapshotMap)
+                    pw.printf("    this.asMap = null;\n");
+                pw.printf("  }\n");
+                pw.println();
+
+                if (root)
+                    binaryFactories(pw, tableClass);
+            }
+
             pw.printf("  public %s (com.moandjiezana.toml.Toml toml, %s defaultValue) {\n", className, className);
-            pw.printf("    if (toml == null) {\n", className);
-            pw.printf("      this.toml = defaultValue.toml;\n", className);
-            pw.printf("    } else {\n", className);
-            pw.printf("      this.toml = toml;\n", className);
-            pw.printf("    }\n", className);
-            pw.printf("  }\n", className);
+            if (lazy)
+                pw.printf("    super(toml == null ? defaultValue.toml : toml, toml == null ? defaultValue.lazy : null);\n");
+            else if (config.accessMode() == AccessMode.SNAPSHOT)
+                pw.printf("    this(toml == null ? defaultValue : new %s(toml));\n", className);
+            else
+                pw.printf("    this(toml == null ? defaultValue.toml : toml);\n");
+            pw.printf("  }\n");
             pw.println();
 
-            Set<Entry<String, Object>> entries = toml.entrySet();
-            for (Entry<String, Object> entry : entries) {
-                String fieldName = escapeReservedWords(config
-                        .fieldCase(fileCaseFormat(entry.getKey()))
-                        .to(CaseFormat.LOWER_CAMEL, entry.getKey()));
+            if (config.accessMode() == AccessMode.SNAPSHOT) {
+                pw.printf("  private %s (%s source) {\n", className, className);
+                pw.printf("    super(source);\n");
+                if (snapshotMap)
+                    pw.printf("    this.asMap = source.asMap;\n");
+                pw.printf("  }\n");
+                pw.println();
+            }
 
-                Object value = entry.getValue();
+            if (config.merge()) {
+                mergeFactories(pw, className);
 
-                String type = type(entry.getKey(), value, false);
-                log.debug("Adding field {}:{}", fieldName, type);
-                pw.printf("  public %s %s(){\n", type, fieldName.replaceAll("\\W", ""));
-                pw.printf("    return %s;\n", accessor(entry.getKey(), value));
+                pw.printf("  private %s (%s[] layers) {\n", className, className);
+                pw.printf("    super(layers);\n");
+                if (snapshotMap)
+                    pw.printf("    this.asMap = tables(layers);\n");
                 pw.printf("  }\n");
+                pw.println();
+
+                if (snapshotMap)
+                    mergeMap(pw, tableClass);
+            }
+
+            if (config.registry() && root)
+                registryFactories(pw, tableClass);
+        }
+
+        if (config.parser()) {
+            String reader = packageName + "." + READER;
+            if (root)
+                parse(pw, tableClass);
 
-                pw.printf("  public %s %s(%s defaultValue){\n", type, fieldName.replaceAll("\\W", ""),
-                        type(entry.getKey(), value, true));
-                pw.printf("    return %s;\n", defaultValueAccessor(entry.getKey(), value));
+            pw.printf("  public static final class Builder extends %s.Builder implements %s.Table {\n", lastPart, reader);
+            pw.println();
+            pw.printf("    public void value(java.lang.String key, %s reader) {\n", reader);
+            pw.printf("      if (!read(key, reader))\n");
+            pw.printf("        reader.readValue();\n");
+            pw.printf("    }\n");
+            pw.println();
+            pw.printf("  }\n");
+            pw.println();
+        }
+
+        if (tableClass.valueClass() != null)
+            mapAccessor(pw, tableClass);
+
+        pathLookup(pw, tableClass, paths);
+        pathSlot(pw, paths);
+        pathParts(pw, parts, paths);
+
+        entries(pw, tableClass);
+
+        pw.printf("}\n");
+    }
+
+    private void renderPart(PrintWriter pw, TableClass part, TableClass superPart, int index, PerfectHash paths) {
+        String className = part.className();
+
+        pw.printf("package %s;", part.packageName());
+        pw.println();
+
+        if (superPart == null)
+            pw.printf("public abstract class %s {\n", className);
+        else
+            pw.printf("public abstract class %s extends %s {\n", className, superPart.className());
+        pw.println();
+
+        if (config.accessMode() == AccessMode.CONSTANT) {
+            constantFields(pw, part);
+
+            pw.printf("  static void entries(java.util.Map<java.lang.String,java.lang.Object> map) {\n");
+            for (TableClass.Member member : part.members())
+                pw.printf("    map.put(%s, %s);\n", literal(member.key()),
+                        primitiveArray(member) != null ? literal(member.value()) : constantValue(member));
+            pw.printf("  }\n");
+            pw.println();
+
+            pw.printf("  private static java.util.Map<java.lang.String,java.lang.Object> unmodifiableMap(java.lang.Object... entries) {\n");
+            pw.printf("    java.util.Map<java.lang.String,java.lang.Object> map = new java.util.LinkedHashMap<java.lang.String,java.lang.Object>();\n");
+            pw.printf("    for (int i = 0; i < entries.length; i += 2)\n");
+            pw.printf("      map.put((java.lang.String) entries[i], entries[i + 1]);\n");
+            pw.printf("    return java.util.Collections.unmodifiableMap(map);\n");
+            pw.printf("  }\n");
+            pw.println();
+        } else {
+            boolean lazy = lazyClasses.contains(part);
+            if (superPart == null)
+                pw.printf("  protected final com.moandjiezana.toml.Toml toml;\n");
+            if (superPart == null && lazy)
+                pw.printf("  protected final %s.%s lazy;\n", packageName, LAZY);
+            if (superPart == null && config.binary()) {
+                pw.printf("  protected final %s.%s binary;\n", packageName, BINARY);
+                pw.printf("  protected final int offset;\n");
+            }
+            memberFields(pw, part);
+
+            if (lazy) {
+                pw.printf("  protected %s (com.moandjiezana.toml.Toml toml, %s.%s lazy) {\n", className, packageName, LAZY);
+                if (superPart == null) {
+                    pw.printf("    this.toml = toml;\n");
+                    pw.printf("    this.lazy = lazy;\n");
+                } else {
+                    pw.printf("    super(toml, lazy);\n");
+                }
+            } else {
+                pw.printf("  protected %s (com.moandjiezana.toml.Toml toml) {\n", className);
+                pw.printf(superPart == null ? "    this.toml = toml;\n" : "    super(toml);\n");
+                if (superPart == null)
+                    binarySource(pw, "null", "0");
+                snapshotInit(pw, part);
+            }
+            pw.printf("  }\n");
+            pw.println();
+
+            if (config.parser()) {
+                pw.printf("  protected %s (Builder builder) {\n", className);
+                pw.printf(superPart == null ? "    this.toml = null;\n" : "    super(builder);\n");
+                if (superPart == null)
+                    binarySource(pw, "null", "0");
+                builderInit(pw, part);
+                pw.printf("  }\n");
+                pw.println();
+
+                partBuilder(pw, part, superPart);
+            }
+
+            if (config.binary()) {
+                pw.printf("  protected %s (%s.%s binary, int offset) {\n", className, packageName, BINARY);
+                pw.printf(superPart == null ? "    this.toml = null;\n" : "    super(binary, offset);\n");
+                if (superPart == null)
+                    binarySource(pw, "binary", "offset");
+                binaryInit(pw, part, index * PART_SIZE);
+                pw.printf("  }\n");
+                pw.println();
+
+                binaryLoaders(pw, part, index * PART_SIZE);
+            }
+
+            if (config.accessMode() == AccessMode.SNAPSHOT) {
+                pw.printf("  protected %s (%s source) {\n", className, className);
+                pw.printf(superPart == null ? "    this.toml = source.toml;\n" : "    super(source);\n");
+                if (superPart == null)
+                    binarySource(pw, "source.binary", "source.offset");
+                copyInit(pw, part);
+                pw.printf("  }\n");
+                pw.println();
+            }
+
+            if (config.merge()) {
+                pw.printf("  protected %s (%s[] layers) {\n", className, className);
+                pw.printf(superPart == null ? "    this.toml = null;\n" : "    super(layers);\n");
+                if (superPart == null)
+                    binarySource(pw, "null", "0");
+                mergeInit(pw, part);
                 pw.printf("  }\n");
                 pw.println();
+
+                mergeHelpers(pw, className);
+            }
+        }
+
+        for (TableClass.Member member : part.members()) {
+            accessors(pw, member, lazyClasses.contains(part));
+            pw.println();
+        }
+
+        if (config.accessMode() != AccessMode.CONSTANT)
+            arrayConverters(pw, part);
+
+        pathCases(pw, part, paths, String.format(
+                "  protected java.lang.Object getPart%d(int slot, java.lang.String path, int from, int to) {\n", index));
+
+        if (config.visitor())
+            forEach(pw, part, superPart != null);
+
+        pw.printf("}\n");
+    }
+
+    private void partBuilder(PrintWriter pw, TableClass part, TableClass superPart) {
+        String reader = packageName + "." + READER;
+
+        if (superPart == null)
+            pw.printf("  public abstract static class Builder implements %s.Table {\n", reader);
+        else
+            pw.printf("  public abstract static class Builder extends %s.Builder {\n", superPart.className());
+        pw.println();
+        builderFields(pw, part);
+
+        pw.printf("    public %s.Table table(java.lang.String key) {\n", reader);
+        builderTables(pw, part, superPart == null ? "null" : "super.table(key)");
+        pw.printf("    }\n");
+        pw.println();
+
+        pw.printf("    public %s.Table element(java.lang.String key) {\n", reader);
+        builderElements(pw, part, superPart == null ? "null" : "super.element(key)");
+        pw.printf("    }\n");
+        pw.println();
+
+        pw.printf("    protected boolean read(java.lang.String key, %s reader) {\n", reader);
+        pw.printf("      switch (key) {\n");
+        for (TableClass.Member member : part.members()) {
+            pw.printf("        case \"%s\":\n", escapeQuotes(member.key()));
+            builderValue(pw, member);
+            pw.printf("          return true;\n");
+        }
+        pw.printf("        default:\n");
+        pw.printf("          return %s;\n", superPart == null ? "false" : "super.read(key, reader)");
+        pw.printf("      }\n");
+        pw.printf("    }\n");
+        pw.println();
+
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    /**
+     * Dotted path lookup over the keys known at generation time. The path is hashed in place, one segment at a time,
+     * and each candidate segment is resolved through {@link PerfectHash} to a single <code>switch</code> case. On
+     * SNAPSHOT and CONSTANT configs a lookup allocates nothing besides boxing primitives and copying primitive arrays;
+     * DELEGATE configs still read values through the toml, which splits the key and boxes on every call.
+     */
+    private void pathLookup(PrintWriter pw, TableClass tableClass, PerfectHash paths) {
+        boolean shadowed = tableClass.members().stream()
+                .anyMatch(member -> member.name().equals("get") && type(member, true).equals("java.lang.String"));
+        if (!shadowed) {
+            pw.printf("  public java.lang.Object get(java.lang.String path) {\n");
+            pw.printf("    return get(path, 0);\n");
+            pw.printf("  }\n");
+            pw.println();
+        }
+
+        pw.printf("  public java.lang.Object get(java.lang.String path, int from) {\n");
+        if (tableClass.members().isEmpty()) {
+            pw.printf("    return null;\n");
+            pw.printf("  }\n");
+            pw.println();
+            return;
+        }
+        pw.printf("    int hash = 0;\n");
+        pw.printf("    for (int i = from; i < path.length(); i++) {\n");
+        pw.printf("      char c = path.charAt(i);\n");
+        pw.printf("      if (c == '.') {\n");
+        pw.printf("        java.lang.Object value = get(slot(hash), path, from, i);\n");
+        pw.printf("        if (value != null)\n");
+        pw.printf("          return value;\n");
+        pw.printf("      }\n");
+        pw.printf("      hash = 31 * hash + c;\n");
+        pw.printf("    }\n");
+        pw.printf("    return get(slot(hash), path, from, path.length());\n");
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    private void pathSlot(PrintWriter pw, PerfectHash paths) {
+        pw.printf("  private static final java.lang.String SEEDS = %s;\n", stringLiteral(paths.seeds()));
+        pw.println();
+
+        pw.printf("  private static int slot(int hash) {\n");
+        pw.printf("    return mix(hash, SEEDS.charAt(mix(hash, 0) %% SEEDS.length())) %% %d;\n", paths.size());
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  private static int mix(int hash, int seed) {\n");
+        pw.printf("    int mixed = (hash ^ seed) * 0x9e3779b9;\n");
+        pw.printf("    return (mixed ^ mixed >>> 15) & 0x7fffffff;\n");
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    /**
+     * Split tables keep the cases next to the fields they read, so the main class only maps each slot to its part.
+     * Keys sharing a slot may be split apart, those slots are mapped to every part holding one of them, in order.
+     */
+    private void pathParts(PrintWriter pw, List<TableClass> parts, PerfectHash paths) {
+        List<Set<Integer>> owners = new ArrayList<>();
+        for (int slot = 0; slot < paths.size(); slot++)
+            owners.add(new TreeSet<>());
+        for (int i = 0; i < parts.size(); i++)
+            for (TableClass.Member member : parts.get(i).members())
+                owners.get(paths.slot(member.key().hashCode())).add(i);
+
+        List<Set<Integer>> cases = new ArrayList<>();
+        for (int i = 0; i < parts.size(); i++)
+            cases.add(Collections.singleton(i));
+        StringBuilder codes = new StringBuilder();
+        for (Set<Integer> owner : owners) {
+            if (owner.isEmpty()) {
+                codes.append((char) 0);
+                continue;
+            }
+            if (!cases.contains(owner))
+                cases.add(owner);
+            codes.append((char) (cases.indexOf(owner) + 1));
+        }
+
+        pw.printf("  private static final java.lang.String PARTS = %s;\n", stringLiteral(codes.toString()));
+        pw.println();
+
+        pw.printf("  private java.lang.Object get(int slot, java.lang.String path, int from, int to) {\n");
+        pw.printf("    switch (PARTS.charAt(slot)) {\n");
+        for (int i = 0; i < cases.size(); i++) {
+            List<Integer> owner = new ArrayList<>(cases.get(i));
+            if (owner.size() == 1) {
+                pw.printf("      case %d:\n", i + 1);
+                pw.printf("        return getPart%d(slot, path, from, to);\n", owner.get(0));
+                continue;
+            }
+            pw.printf("      case %d: {\n", i + 1);
+            pw.printf("        java.lang.Object value = getPart%d(slot, path, from, to);\n", owner.get(0));
+            for (int part : owner.subList(1, owner.size() - 1)) {
+                pw.printf("        if (value == null)\n");
+                pw.printf("          value = getPart%d(slot, path, from, to);\n", part);
+            }
+            pw.printf("        return value != null ? value : getPart%d(slot, path, from, to);\n", owner.get(owner.size() - 1));
+            pw.printf("      }\n");
+        }
+        pw.printf("      default:\n");
+        pw.printf("        return null;\n");
+        pw.printf("    }\n");
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    private void pathCases(PrintWriter pw, TableClass tableClass, PerfectHash paths, String signature) {
+        Map<Integer, List<TableClass.Member>> slots = new TreeMap<>();
+        for (TableClass.Member member : tableClass.members())
+            slots.computeIfAbsent(paths.slot(member.key().hashCode()), slot -> new ArrayList<>()).add(member);
+
+        pw.printf(signature);
+        pw.printf("    switch (slot) {\n");
+        for (Map.Entry<Integer, List<TableClass.Member>> slot : slots.entrySet()) {
+            pw.printf("      case %d:\n", slot.getKey());
+            for (TableClass.Member member : slot.getValue()) {
+                if (member.table() != null) {
+                    pw.printf("        if (matches(path, from, to, %s)) {\n", stringLiteral(member.key()));
+                    pw.printf("          %s table = %s;\n", member.table().qualifiedName(), table(member));
+                    pw.printf("          return to == path.length() || table == null ? table : table.get(path, to + 1);\n");
+                    pw.printf("        }\n");
+                } else {
+                    pw.printf("        if (to == path.length() && matches(path, from, to, %s))\n", stringLiteral(member.key()));
+                    pw.printf("          return %s;\n", pathValue(member));
+                }
+            }
+            pw.printf("        return null;\n");
+        }
+        pw.printf("      default:\n");
+        pw.printf("        return null;\n");
+        pw.printf("    }\n");
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  private static boolean matches(java.lang.String path, int from, int to, java.lang.String key) {\n");
+        pw.printf("    return to - from == key.length() && path.regionMatches(from, key, 0, key.length());\n");
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    /**
+     * @return the table of <code>member</code>, or null when absent, without going through its public accessors: a
+     *         table named <code>get</code> would make <code>get(null)</code> ambiguous with the path lookups
+     */
+    private String table(TableClass.Member member) {
+        if (config.accessMode() == AccessMode.CONSTANT)
+            return constantValue(member);
+        if (config.accessMode() == AccessMode.SNAPSHOT)
+            return snapshotValue(member);
+        return loader(member) + "()";
+    }
+
+    /**
+     * @return the value of a SNAPSHOT <code>member</code>, its field unless it is still to be read from the binary
+     */
+    private String snapshotValue(TableClass.Member member) {
+        return fromBinary(member) ? loader(member) + "()" : "this." + fieldName(member);
+    }
+
+    /**
+     * Name of the private method memoizing a member, which internal readers call instead of its public accessors.
+     */
+    private String loader(TableClass.Member member) {
+        return "load" + CaseFormat.LOWER_CAMEL.to(CaseFormat.UPPER_CAMEL, fieldName(member));
+    }
+
+    private String pathValue(TableClass.Member member) {
+        if (config.accessMode() == AccessMode.SNAPSHOT && primitive(member) != null)
+            return String.format("%sPresent ? (java.lang.Object) %s : null", fieldName(member), fieldName(member));
+        if (config.accessMode() == AccessMode.DELEGATE && primitiveArray(member) == null && member.element() == null)
+            return accessor(member);
+        return member.name() + "()";
+    }
+
+    /**
+     * Walks the known members in declaration order, handing primitives over unboxed and descending into tables
+     * in place, so a traversal builds no collections. Parts of a split table each visit their own members after
+     * the parts before them.
+     */
+    private void forEach(PrintWriter pw, TableClass tableClass, boolean inherited) {
+        pw.printf("  public void forEach(%s.%s visitor) {\n", packageName, VISITOR);
+        if (inherited)
+            pw.printf("    super.forEach(visitor);\n");
+        for (TableClass.Member member : tableClass.members()) {
+            String key = stringLiteral(member.key());
+            if (member.table() != null)
+                visitTable(pw, member, key);
+            else if (member.element() != null)
+                visitElements(pw, member, key);
+            else
+                visitValue(pw, member, key);
+        }
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    private void visitTable(PrintWriter pw, TableClass.Member member, String key) {
+        String table;
+        String indent = "    ";
+        if (config.accessMode() == AccessMode.CONSTANT) {
+            pw.printf("    if (visitor.enterTable(%s)) {\n", key);
+            table = constantValue(member);
+        } else {
+            if (config.accessMode() == AccessMode.SNAPSHOT) {
+                table = table(member);
+            } else {
+                pw.printf("    {\n");
+                pw.printf("      %s table = %s;\n", member.table().qualifiedName(), table(member));
+                table = "table";
+                indent = "      ";
+            }
+            pw.printf("%sif (%s != null && visitor.enterTable(%s)) {\n", indent, table, key);
+        }
+        pw.printf("%s  %s.forEach(visitor);\n", indent, table);
+        pw.printf("%s  visitor.exitTable(%s);\n", indent, key);
+        pw.printf("%s}\n", indent);
+        if (!indent.equals("    "))
+            pw.printf("    }\n");
+    }
+
+    private void visitElements(PrintWriter pw, TableClass.Member member, String key) {
+        String list = config.accessMode() == AccessMode.SNAPSHOT ? snapshotValue(member) : null;
+        String indent = "    ";
+        if (config.accessMode() != AccessMode.SNAPSHOT) {
+            pw.printf("    {\n");
+            pw.printf("      %s list = %s();\n", fieldType(member), member.name());
+            list = "list";
+            indent = "      ";
+        }
+        pw.printf("%sif (%s != null && visitor.enterTableArray(%s, %s.size())) {\n", indent, list, key, list);
+        pw.printf("%s  for (int i = 0; i < %s.size(); i++) {\n", indent, list);
+        pw.printf("%s    if (visitor.enterTable(%s)) {\n", indent, key);
+        pw.printf("%s      %s.get(i).forEach(visitor);\n", indent, list);
+        pw.printf("%s      visitor.exitTable(%s);\n", indent, key);
+        pw.printf("%s    }\n", indent);
+        pw.printf("%s  }\n", indent);
+        pw.printf("%s  visitor.exitTableArray(%s);\n", indent, key);
+        pw.printf("%s}\n", indent);
+        if (!indent.equals("    "))
+            pw.printf("    }\n");
+    }
+
+    private void visitValue(PrintWriter pw, TableClass.Member member, String key) {
+        String primitiveArray = primitiveArray(member);
+        String callback = primitiveArray != null
+                ? "visit" + CaseFormat.LOWER_CAMEL.to(CaseFormat.UPPER_CAMEL, primitiveArray) + "s"
+                : "visit" + visitedType(member.value());
+
+        if (config.accessMode() == AccessMode.CONSTANT) {
+            pw.printf("    visitor.%s(%s, %s);\n", callback, key,
+                    primitiveArray != null ? constantName(member) : constantValue(member));
+        } else if (config.accessMode() == AccessMode.SNAPSHOT) {
+            String field = primitive(member) != null ? "this." + fieldName(member) : snapshotValue(member);
+            pw.printf("    if (%s)\n", primitive(member) != null ? field + "Present" : field + " != null");
+            pw.printf("      visitor.%s(%s, %s);\n", callback, key, field);
+        } else {
+            boolean accessor = primitiveArray == null;
+            pw.printf("    {\n");
+            pw.printf("      %s value = %s;\n", accessor ? boxedType(member.value()) : fieldType(member),
+                    accessor ? accessor(member) : member.name() + "()");
+            pw.printf("      if (value != null)\n");
+            pw.printf("        visitor.%s(%s, value);\n", callback, key);
+            pw.printf("    }\n");
+        }
+    }
+
+    private String boxedType(Object value) {
+        if (value instanceof List)
+            return "java.util.List<?>";
+        return value.getClass().getName();
+    }
+
+    private String visitedType(Object value) {
+        if (value instanceof List)
+            return "List";
+        return value.getClass().getSimpleName();
+    }
+
+    private void entries(PrintWriter pw, TableClass tableClass) {
+        pw.printf("  public java.util.Set<java.util.Map.Entry<java.lang.String,java.lang.Object>> entries() {\n");
+        if (config.accessMode() == AccessMode.CONSTANT) {
+            pw.printf("    return ENTRIES.entrySet();\n");
+        } else if (lazyClasses.contains(tableClass)) {
+            pw.printf("    return %s.%s.toml(lazy, toml).entrySet();\n", packageName, LAZY);
+        } else {
+            if (config.parser() || config.merge() || config.binary()) {
+                pw.printf("    if (toml == null)\n");
+                pw.printf("      throw new java.lang.IllegalStateException(\"entries() is only available on instances read from a toml\");\n");
+            }
+            pw.printf("    return this.toml.entrySet();\n");
+        }
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    /**
+     * @return every source file this generator is responsible for, including the unchanged ones it did not rewrite
+     */
+    public List<File> sources() {
+        return Collections.unmodifiableList(sources);
+    }
+
+    /**
+     * @return how many sources were skipped because the existing file already had the generated content
+     */
+    public int unchanged() {
+        return unchanged;
+    }
+
+    /**
+     * @return how many bytes were written to the sources that did change
+     */
+    public long written() {
+        return written;
+    }
+
+    private void fields(PrintWriter pw, TableClass tableClass) {
+        pw.printf("  private final com.moandjiezana.toml.Toml toml;\n");
+        if (config.binary()) {
+            pw.printf("  private final %s.%s binary;\n", packageName, BINARY);
+            pw.printf("  private final int offset;\n");
+        }
+        if (lazyClasses.contains(tableClass))
+            pw.printf("  private final %s.%s lazy;\n", packageName, LAZY);
+        mapField(pw, tableClass);
+        memberFields(pw, tableClass);
+    }
+
+    private void mapField(PrintWriter pw, TableClass tableClass) {
+        if (tableClass.valueClass() == null)
+            return;
+        if (config.accessMode() == AccessMode.SNAPSHOT)
+            pw.printf("  private final %s asMap;\n", mapType(tableClass));
+        else
+            pw.printf("  private volatile %s asMap;\n", mapType(tableClass));
+    }
+
+    private String mapType(TableClass tableClass) {
+        return String.format("java.util.Map<java.lang.String,%s>", tableClass.valueClass().qualifiedName());
+    }
+
+    /**
+     * Exposes every table inside, including the ones added to the toml after the sources were generated.
+     */
+    private void mapAccessor(PrintWriter pw, TableClass tableClass) {
+        String type = mapType(tableClass);
+        String valueClass = tableClass.valueClass().qualifiedName();
+
+        pw.printf("  public %s asMap(){\n", type);
+        if (config.accessMode() == AccessMode.SNAPSHOT) {
+            if ((config.parser() || config.binary()) && tableClass.members().size() > PART_SIZE) {
+                pw.printf("    if (asMap == null)\n");
+                pw.printf("      throw new java.lang.IllegalStateException(\"asMap() is only available on instances read from a toml\");\n");
+            }
+            pw.printf("    return asMap;\n");
+        } else {
+            pw.printf("    %s result = asMap;\n", type);
+            pw.printf("    if (result == null) {\n");
+            if (lazyClasses.contains(tableClass))
+                pw.printf("      result = tables(%s.%s.toml(lazy, toml));\n", packageName, LAZY);
+            else
+                pw.printf("      result = tables(toml);\n");
+            pw.printf("      asMap = result;\n");
+            pw.printf("    }\n");
+            pw.printf("    return result;\n");
+        }
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  private static %s tables(com.moandjiezana.toml.Toml toml) {\n", type);
+        pw.printf("    %s tables = new java.util.LinkedHashMap<java.lang.String,%s>();\n", type, valueClass);
+        pw.printf("    for (java.util.Map.Entry<java.lang.String,java.lang.Object> entry : toml.entrySet())\n");
+        pw.printf("      if (entry.getValue() instanceof com.moandjiezana.toml.Toml)\n");
+        pw.printf("        tables.put(entry.getKey(), new %s((com.moandjiezana.toml.Toml) entry.getValue()));\n", valueClass);
+        pw.printf("    return java.util.Collections.unmodifiableMap(tables);\n");
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    private void memberFields(PrintWriter pw, TableClass tableClass) {
+        for (TableClass.Member member : tableClass.members()) {
+            if (fromBinary(member)) {
+                pw.printf("  private volatile %s %s;\n", fieldType(member), fieldName(member));
+            } else if (config.accessMode() == AccessMode.SNAPSHOT) {
+                pw.printf("  private final %s %s;\n", fieldType(member), fieldName(member));
+                if (primitive(member) != null)
+                    pw.printf("  private final boolean %sPresent;\n", fieldName(member));
+            } else if (member.table() != null) {
+                pw.printf("  private volatile %s %s;\n", fieldType(member), fieldName(member));
+                pw.printf("  private volatile java.lang.Boolean %sPresent;\n", fieldName(member));
+            } else if (primitiveArray(member) != null || member.element() != null) {
+                pw.printf("  private volatile %s %s;\n", fieldType(member), fieldName(member));
+            }
+        }
+        pw.println();
+    }
+
+    private void constructors(PrintWriter pw, TableClass tableClass) {
+        String className = tableClass.className();
+
+        if (lazyClasses.contains(tableClass)) {
+            lazyConstructors(pw, tableClass);
+            return;
+        }
+
+        pw.printf("  public %s (com.moandjiezana.toml.Toml toml) {\n", className);
+        pw.printf("    this.toml = toml;\n");
+        binarySource(pw, "null", "0");
+        snapshotInit(pw, tableClass);
+        if (tableClass.valueClass() != null && config.accessMode() == AccessMode.SNAPSHOT)
+            pw.printf("    this.asMap = tables(toml);\n");
+        pw.printf("  }\n");
+        pw.println();
+
+        if (config.parser()) {
+            pw.printf("  public %s (Builder builder) {\n", className);
+            pw.printf("    this.toml = null;\n");
+            binarySource(pw, "null", "0");
+            builderInit(pw, tableClass);
+            if (tableClass.valueClass() != null)
+                builderMap(pw, tableClass, true);
+            pw.printf("  }\n");
+            pw.println();
+        }
+
+        if (config.binary()) {
+            pw.printf("  public %s (%s.%s binary, int offset) {\n", className, packageName, BINARY);
+            pw.printf("    this.toml = null;\n");
+            binarySource(pw, "binary", "offset");
+            binaryInit(pw, tableClass, 0);
+            if (tableClass.valueClass() != null)
+                builderMap(pw, tableClass, false);
+            pw.printf("  }\n");
+            pw.println();
+        }
+
+        pw.printf("  public %s (com.moandjiezana.toml.Toml toml, %s defaultValue) {\n", className, className);
+        if (config.accessMode() == AccessMode.SNAPSHOT) {
+            pw.printf("    this(toml == null ? defaultValue : new %s(toml));\n", className);
+            pw.printf("  }\n");
+            pw.println();
+
+            pw.printf("  private %s (%s source) {\n", className, className);
+            pw.printf("    this.toml = source.toml;\n");
+            binarySource(pw, "source.binary", "source.offset");
+            copyInit(pw, tableClass);
+            if (tableClass.valueClass() != null)
+                pw.printf("    this.asMap = source.asMap;\n");
+        } else {
+            pw.printf("    if (toml == null) {\n");
+            pw.printf("      this.toml = defaultValue.toml;\n");
+            pw.printf("    } else {\n");
+            pw.printf("      this.toml = toml;\n");
+            pw.printf("    }\n");
+        }
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    /**
+     * Constructors of a root class reading its top level tables from a {@link #LAZY}, besides the usual ones
+     * taking a toml. Lazy classes are always DELEGATE ones, so there is nothing to initialize.
+     */
+    private void lazyConstructors(PrintWriter pw, TableClass tableClass) {
+        String className = tableClass.className();
+        String lazy = packageName + "." + LAZY;
+
+        pw.printf("  public %s (com.moandjiezana.toml.Toml toml) {\n", className);
+        pw.printf("    this(toml, (%s) null);\n", lazy);
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  public %s (%s lazy) {\n", className, lazy);
+        pw.printf("    this(lazy.root(), lazy);\n");
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  private %s (com.moandjiezana.toml.Toml toml, %s lazy) {\n", className, lazy);
+        pw.printf("    this.toml = toml;\n");
+        pw.printf("    this.lazy = lazy;\n");
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  public %s (com.moandjiezana.toml.Toml toml, %s defaultValue) {\n", className, className);
+        pw.printf("    this(toml == null ? defaultValue.toml : toml, toml == null ? defaultValue.lazy : null);\n");
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    private void lazyFactories(PrintWriter pw, TableClass tableClass) {
+        String className = tableClass.className();
+        String lazy = packageName + "." + LAZY;
+
+        pw.printf("  public static %s readLazily(java.lang.String document) {\n", className);
+        pw.printf("    return new %s(new %s(document));\n", className, lazy);
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  public static %s readLazily(java.io.Reader reader) throws java.io.IOException {\n", className);
+        pw.printf("    return new %s(%s.read(reader));\n", className, lazy);
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    private void snapshotInit(PrintWriter pw, TableClass tableClass) {
+        if (config.accessMode() != AccessMode.SNAPSHOT)
+            return;
+        for (TableClass.Member member : tableClass.members()) {
+            String field = fieldName(member);
+            String primitive = primitive(member);
+            if (primitive != null) {
+                pw.printf("    %s %s = %s;\n", member.value().getClass().getName(), field, accessor(member));
+                pw.printf("    this.%sPresent = %s != null;\n", field, field);
+                pw.printf("    this.%s = %s != null ? %s : %s;\n", field, field, field, PRIMITIVE_DEFAULTS.get(primitive));
+            } else {
+                pw.printf("    this.%s = %s;\n", field, snapshotAccessor(member));
+            }
+        }
+    }
+
+    /**
+     * Fills <code>asMap</code> with the known tables first, then, when <code>others</code> is set, the ones the
+     * builder found under other keys.
+     */
+    private void builderMap(PrintWriter pw, TableClass tableClass, boolean others) {
+        String type = mapType(tableClass);
+        String valueClass = tableClass.valueClass().qualifiedName();
+
+        pw.printf("    %s asMap = new java.util.LinkedHashMap<java.lang.String,%s>();\n", type, valueClass);
+        for (TableClass.Member member : tableClass.members()) {
+            pw.printf("    if (%s != null)\n", table(member));
+            pw.printf("      asMap.put(%s, %s);\n", stringLiteral(member.key()), table(member));
+        }
+        if (others) {
+            pw.printf("    for (java.util.Map.Entry<java.lang.String,%s.Builder> entry : builder.others.entrySet())\n", valueClass);
+            pw.printf("      asMap.put(entry.getKey(), new %s(entry.getValue()));\n", valueClass);
+        }
+        pw.printf("    this.asMap = java.util.Collections.unmodifiableMap(asMap);\n");
+    }
+
+    private void binarySource(PrintWriter pw, String binary, String offset) {
+        if (!config.binary())
+            return;
+        pw.printf("    this.binary = %s;\n", binary);
+        pw.printf("    this.offset = %s;\n", offset);
+    }
+
+    /**
+     * Whether <code>member</code> is left in its slot of the binary until first read, rather than copied into its
+     * field by the constructor. Only primitives are read up front, as they decode without allocating.
+     */
+    private boolean fromBinary(TableClass.Member member) {
+        return config.binary() && primitive(member) == null;
+    }
+
+    /**
+     * Reads the primitive members from their slot in the binary record at <code>offset</code>, <code>first</code>
+     * being the index of the first member of <code>tableClass</code> in the whole table, for parts of split tables.
+     */
+    private void binaryInit(PrintWriter pw, TableClass tableClass, int first) {
+        List<TableClass.Member> members = tableClass.members();
+        for (int i = 0; i < members.size(); i++) {
+            TableClass.Member member = members.get(i);
+            String field = fieldName(member);
+            String primitive = primitive(member);
+            if (primitive == null)
+                continue;
+            int index = first + i;
+            pw.printf("    this.%sPresent = binary.is%s(offset, %d);\n", field, visitedType(member.value()), index);
+            pw.printf("    this.%s = this.%sPresent ? binary.%sValue(offset, %d) : %s;\n",
+                    field, field, primitive, index, PRIMITIVE_DEFAULTS.get(primitive));
+        }
+    }
+
+    /**
+     * Every other member is decoded from its slot on first read, and memoized. Instances not read from a binary
+     * have no <code>binary</code>, so their loaders just return the field.
+     */
+    private void binaryLoaders(PrintWriter pw, TableClass tableClass, int first) {
+        List<TableClass.Member> members = tableClass.members();
+        for (int i = 0; i < members.size(); i++) {
+            TableClass.Member member = members.get(i);
+            if (!fromBinary(member))
+                continue;
+            String field = fieldName(member);
+            String type = fieldType(member);
+            int index = first + i;
+            String value;
+            if (member.table() != null)
+                value = String.format("binary.contains(offset, %d) ? new %s(binary, binary.getTable(offset, %d)) : null",
+                        index, member.table().qualifiedName(), index);
+            else if (member.element() != null)
+                value = String.format("%s.%s.of(binary.getTables(offset, %d), element -> new %s(binary, element))",
+                        packageName, TABLE_LIST, index, member.element().qualifiedName());
+            else if (primitiveArray(member) != null)
+                value = String.format("%s(binary.getList(offset, %d))", arrayConverter(primitiveArray(member)), index);
+            else
+                value = String.format("binary.get%s(offset, %d)", visitedType(member.value()), index);
+
+            pw.printf("  private %s %s(){\n", type, loader(member));
+            pw.printf("    %s result = %s;\n", type, field);
+            pw.printf("    if (result == null && binary != null) {\n");
+            pw.printf("      result = %s;\n", value);
+            pw.printf("      %s = result;\n", field);
+            pw.printf("    }\n");
+            pw.printf("    return result;\n");
+            pw.printf("  }\n");
+            pw.println();
+        }
+    }
+
+    private void binaryFactories(PrintWriter pw, TableClass tableClass) {
+        String className = tableClass.className();
+        String binary = packageName + "." + BINARY;
+
+        pw.printf("  public static %s loadBinary() throws java.io.IOException {\n", className);
+        pw.printf("    return read(%s.load(%s.class, \"%s.tomlbin\"));\n", binary, className, className);
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  public static %s read(java.nio.file.Path file) throws java.io.IOException {\n", className);
+        pw.printf("    return read(%s.map(file));\n", binary);
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  public static %s read(java.nio.ByteBuffer buffer) {\n", className);
+        pw.printf("    return read(new %s(buffer));\n", binary);
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  private static %s read(%s binary) {\n", className, binary);
+        pw.printf("    return new %s(binary, binary.root());\n", className);
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    private void builderInit(PrintWriter pw, TableClass tableClass) {
+        for (TableClass.Member member : tableClass.members()) {
+            String field = fieldName(member);
+            if (member.table() != null)
+                pw.printf("    this.%s = builder.%s == null ? null : new %s(builder.%s);\n",
+                        field, field, member.table().qualifiedName(), field);
+            else if (member.element() != null)
+                pw.printf("    this.%s = %s.%s.of(builder.%s, %s::new);\n",
+                        field, packageName, TABLE_LIST, field, member.element().qualifiedName());
+            else
+                pw.printf("    this.%s = builder.%s;\n", field, field);
+            if (primitive(member) != null)
+                pw.printf("    this.%sPresent = builder.%sPresent;\n", field, field);
+        }
+    }
+
+    /**
+     * Resolves an overlay stack once, so reads on the result never walk the layers. Later layers win, and a
+     * table found in a single layer is reused as is instead of being copied.
+     */
+    private void merge(PrintWriter pw, TableClass tableClass) {
+        String className = tableClass.className();
+
+        mergeFactories(pw, className);
+
+        pw.printf("  private %s (%s[] layers) {\n", className, className);
+        pw.printf("    this.toml = null;\n");
+        binarySource(pw, "null", "0");
+        mergeInit(pw, tableClass);
+        if (tableClass.valueClass() != null)
+            pw.printf("    this.asMap = tables(layers);\n");
+        pw.printf("  }\n");
+        pw.println();
+
+        mergeHelpers(pw, className);
+        if (tableClass.valueClass() != null)
+            mergeMap(pw, tableClass);
+    }
+
+    private void mergeFactories(PrintWriter pw, String className) {
+        pw.printf("  public static %s merge(com.moandjiezana.toml.Toml... layers) {\n", className);
+        pw.printf("    java.util.List<%s> resolved = new java.util.ArrayList<%s>(layers.length);\n", className, className);
+        pw.printf("    for (com.moandjiezana.toml.Toml layer : layers)\n");
+        pw.printf("      resolved.add(layer == null ? null : new %s(layer));\n", className);
+        pw.printf("    return merge(resolved);\n");
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  public static %s merge(%s... layers) {\n", className, className);
+        pw.printf("    return merge(java.util.Arrays.asList(layers));\n");
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  public static %s merge(java.util.List<%s> layers) {\n", className, className);
+        pw.printf("    java.util.List<%s> present = new java.util.ArrayList<%s>(layers.size());\n", className, className);
+        pw.printf("    for (%s layer : layers)\n", className);
+        pw.printf("      if (layer != null)\n");
+        pw.printf("        present.add(layer);\n");
+        pw.printf("    if (present.size() <= 1)\n");
+        pw.printf("      return present.isEmpty() ? null : present.get(0);\n");
+        pw.printf("    return new %s(present.toArray(new %s[present.size()]));\n", className, className);
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    /**
+     * Keeps one merged instance per tenant, each one the base with that tenant's override on top. Merging reuses
+     * the base tables an override does not touch, so tenants only pay for what they change.
+     */
+    private void registryFactories(PrintWriter pw, TableClass tableClass) {
+        String className = tableClass.className();
+        String registry = String.format("%s.%s<%s>", packageName, REGISTRY, className);
+        String overrides = "java.util.function.Function<java.lang.String,com.moandjiezana.toml.Toml>";
+
+        pw.printf("  public static %s registry(%s base, %s overrides, long maximumTenants) {\n",
+                registry, className, overrides);
+        pw.printf("    return registry(base, overrides, maximumTenants, %s.%s.TENANTS);\n", packageName, REGISTRY);
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  public static %s registry(%s base, %s overrides, long maximumWeight, "
+                + "java.util.function.ToLongFunction<com.moandjiezana.toml.Toml> weigher) {\n",
+                registry, className, overrides);
+        pw.printf("    return new %s(base, (config, override) -> merge(config, new %s(override)), overrides, maximumWeight, weigher);\n",
+                registry, className);
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    /**
+     * Shares the values <code>source</code> resolved, including the ones it has not read from its binary yet.
+     */
+    private void copyInit(PrintWriter pw, TableClass tableClass) {
+        for (TableClass.Member member : tableClass.members()) {
+            String field = fieldName(member);
+            pw.printf("    this.%s = source.%s;\n", field, field);
+            if (primitive(member) != null)
+                pw.printf("    this.%sPresent = source.%sPresent;\n", field, field);
+        }
+    }
+
+    private void mergeInit(PrintWriter pw, TableClass tableClass) {
+        for (TableClass.Member member : tableClass.members()) {
+            String field = fieldName(member);
+            String primitive = primitive(member);
+            String value = fromBinary(member) ? loader(member) + "()" : field;
+            if (member.table() != null) {
+                pw.printf("    this.%s = %s.merge(each(layers, layer -> layer.%s));\n",
+                        field, member.table().qualifiedName(), value);
+            } else if (primitive != null) {
+                String present = String.format("last(layers, layer -> layer.%sPresent ? layer.%s : null)", field, field);
+                pw.printf("    this.%sPresent = %s != null;\n", field, present);
+                pw.printf("    this.%s = this.%sPresent ? %s : %s;\n", field, field, present, PRIMITIVE_DEFAULTS.get(primitive));
+            } else {
+                pw.printf("    this.%s = last(layers, layer -> layer.%s);\n", field, value);
             }
+        }
+    }
+
+    private void mergeHelpers(PrintWriter pw, String className) {
+        pw.printf("  private static <T> T last(%s[] layers, java.util.function.Function<%s,T> field) {\n", className, className);
+        pw.printf("    for (int i = layers.length - 1; i >= 0; i--) {\n");
+        pw.printf("      T value = field.apply(layers[i]);\n");
+        pw.printf("      if (value != null)\n");
+        pw.printf("        return value;\n");
+        pw.printf("    }\n");
+        pw.printf("    return null;\n");
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  private static <T> java.util.List<T> each(%s[] layers, java.util.function.Function<%s,T> field) {\n", className, className);
+        pw.printf("    java.util.List<T> values = new java.util.ArrayList<T>(layers.length);\n");
+        pw.printf("    for (%s layer : layers)\n", className);
+        pw.printf("      values.add(field.apply(layer));\n");
+        pw.printf("    return values;\n");
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    private void mergeMap(PrintWriter pw, TableClass tableClass) {
+        String className = tableClass.className();
+        String type = mapType(tableClass);
+        String valueClass = tableClass.valueClass().qualifiedName();
+        String layersType = String.format("java.util.Map<java.lang.String,java.util.List<%s>>", valueClass);
+
+        pw.printf("  private static %s tables(%s[] layers) {\n", type, className);
+        pw.printf("    %s tables = new java.util.LinkedHashMap<java.lang.String,java.util.List<%s>>();\n", layersType, valueClass);
+        pw.printf("    for (%s layer : layers)\n", className);
+        pw.printf("      for (java.util.Map.Entry<java.lang.String,%s> entry : layer.asMap().entrySet()) {\n", valueClass);
+        pw.printf("        java.util.List<%s> values = tables.get(entry.getKey());\n", valueClass);
+        pw.printf("        if (values == null) {\n");
+        pw.printf("          values = new java.util.ArrayList<%s>();\n", valueClass);
+        pw.printf("          tables.put(entry.getKey(), values);\n");
+        pw.printf("        }\n");
+        pw.printf("        values.add(entry.getValue());\n");
+        pw.printf("      }\n");
+        pw.printf("    %s merged = new java.util.LinkedHashMap<java.lang.String,%s>();\n", type, valueClass);
+        pw.printf("    for (java.util.Map.Entry<java.lang.String,java.util.List<%s>> entry : tables.entrySet())\n", valueClass);
+        pw.printf("      merged.put(entry.getKey(), %s.merge(entry.getValue()));\n", valueClass);
+        pw.printf("    return java.util.Collections.unmodifiableMap(merged);\n");
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    /**
+     * @param lazy
+     *            whether tables and table arrays are read from their own section of a {@link #LAZY}, parsed on
+     *            first access, rather than from <code>toml</code>
+     */
+    private void accessors(PrintWriter pw, TableClass.Member member, boolean lazy) {
+        String type = type(member, false);
+        String field = fieldName(member);
+        boolean snapshot = config.accessMode() == AccessMode.SNAPSHOT;
+        String toml = lazy && (member.table() != null || member.element() != null)
+                ? String.format("%s.%s.section(lazy, toml, \"%s\")", packageName, LAZY, escapeQuotes(member.key()))
+                : "toml";
+
+        if (config.accessMode() == AccessMode.CONSTANT) {
+            pw.printf("  public %s %s(){\n", type, member.name());
+            pw.printf("    return %s;\n", constantValue(member));
+            pw.printf("  }\n");
+            pw.printf("  public %s %s(%s defaultValue){\n", type, member.name(), type(member, true));
+            pw.printf("    return %s;\n", constantValue(member));
+            pw.printf("  }\n");
+            return;
+        }
+
+        pw.printf("  public %s %s(){\n", type, member.name());
+        if (snapshot && primitive(member) != null) {
+            pw.printf("    if (!%sPresent)\n", field);
+            pw.printf("      throw new java.lang.NullPointerException(\"%s\");\n", escapeQuotes(member.key()));
+            pw.printf("    return %s;\n", field);
+        } else if (fromBinary(member) && primitiveArray(member) != null) {
+            pw.printf("    %s result = %s();\n", type, loader(member));
+            pw.printf("    return result == null ? null : result.clone();\n");
+        } else if (fromBinary(member)) {
+            pw.printf("    return %s();\n", loader(member));
+        } else if (snapshot && primitiveArray(member) != null) {
+            pw.printf("    return %s == null ? null : %s.clone();\n", field, field);
+        } else if (snapshot) {
+            pw.printf("    return %s;\n", field);
+        } else if (member.table() != null || primitiveArray(member) != null || member.element() != null) {
+            pw.printf("    %s result = %s;\n", type, field);
+            pw.printf("    if (result == null) {\n");
+            pw.printf("      result = %s;\n", accessor(member, toml));
+            pw.printf("      %s = result;\n", field);
+            pw.printf("    }\n");
+            if (primitiveArray(member) != null)
+                pw.printf("    return result == null ? null : result.clone();\n");
+            else
+                pw.printf("    return result;\n");
+        } else {
+            pw.printf("    return %s;\n", accessor(member));
+        }
+        pw.printf("  }\n");
 
-            pw.printf("  public java.util.Set<java.util.Map.Entry<java.lang.String,java.lang.Object>> entries() {\n",
-                    className, className);
-            pw.printf("    return this.toml.entrySet();\n", className);
-            pw.printf("  }\n", className);
+        pw.printf("  public %s %s(%s defaultValue){\n", type, member.name(), type(member, true));
+        if (snapshot && primitive(member) != null) {
+            pw.printf("    return %sPresent ? %s : defaultValue;\n", field, field);
+        } else if (fromBinary(member)) {
+            pw.printf("    %s result = %s();\n", type(member, true), member.name());
+            pw.printf("    return result != null ? result : defaultValue;\n");
+        } else if (snapshot && primitiveArray(member) != null) {
+            pw.printf("    return %s != null ? %s.clone() : defaultValue;\n", field, field);
+        } else if (snapshot) {
+            pw.printf("    return %s != null ? %s : defaultValue;\n", field, field);
+        } else if (member.table() != null) {
+            pw.printf("    %s result = %s();\n", type, loader(member));
+            pw.printf("    return result != null ? result : defaultValue;\n");
+            pw.printf("  }\n");
+
+            pw.printf("  private %s %s(){\n", type, loader(member));
+            pw.printf("    java.lang.Boolean present = %sPresent;\n", field);
+            pw.printf("    if (present == null) {\n");
+            pw.printf("      present = %s.containsTable(\"%s\");\n", toml, escapeQuotes(member.key()));
+            pw.printf("      %sPresent = present;\n", field);
+            pw.printf("    }\n");
+            pw.printf("    return present ? %s() : null;\n", member.name());
+        } else if (primitiveArray(member) != null || member.element() != null) {
+            pw.printf("    %s result = %s();\n", type, member.name());
+            pw.printf("    return result != null ? result : defaultValue;\n");
+        } else {
+            pw.printf("    return %s;\n", defaultValueAccessor(member));
+        }
+        pw.printf("  }\n");
+    }
+
+    private void parse(PrintWriter pw, TableClass tableClass) {
+        String className = tableClass.className();
+        String reader = packageName + "." + READER;
+
+        pw.printf("  public static %s parse(java.io.Reader reader) throws java.io.IOException {\n", className);
+        pw.printf("    return parse(%s.read(reader));\n", reader);
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  public static %s parse(java.nio.ByteBuffer buffer) {\n", className);
+        pw.printf("    return parse(%s.read(buffer));\n", reader);
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  private static %s parse(java.lang.CharSequence document) {\n", className);
+        pw.printf("    Builder builder = new Builder();\n");
+        pw.printf("    new %s(document).read(builder);\n", reader);
+        pw.printf("    return new %s(builder);\n", className);
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    private void builder(PrintWriter pw, TableClass tableClass) {
+        String reader = packageName + "." + READER;
+
+        pw.printf("  public static final class Builder implements %s.Table {\n", reader);
+        pw.println();
+        builderFields(pw, tableClass);
+
+        TableClass valueClass = tableClass.valueClass();
+        if (valueClass != null) {
+            pw.printf("    private final java.util.Map<java.lang.String,%s.Builder> others = new java.util.LinkedHashMap<java.lang.String,%s.Builder>();\n",
+                    valueClass.qualifiedName(), valueClass.qualifiedName());
+            pw.println();
+        }
+
+        pw.printf("    public %s.Table table(java.lang.String key) {\n", reader);
+        builderTables(pw, tableClass, valueClass != null ? "other(key)" : "null");
+        pw.printf("    }\n");
+        pw.println();
+
+        if (valueClass != null) {
+            pw.printf("    private %s.Builder other(java.lang.String key) {\n", valueClass.qualifiedName());
+            pw.printf("      %s.Builder other = others.get(key);\n", valueClass.qualifiedName());
+            pw.printf("      if (other == null) {\n");
+            pw.printf("        other = new %s.Builder();\n", valueClass.qualifiedName());
+            pw.printf("        others.put(key, other);\n");
+            pw.printf("      }\n");
+            pw.printf("      return other;\n");
+            pw.printf("    }\n");
             pw.println();
+        }
+
+        pw.printf("    public %s.Table element(java.lang.String key) {\n", reader);
+        builderElements(pw, tableClass, "null");
+        pw.printf("    }\n");
+        pw.println();
+
+        pw.printf("    public void value(java.lang.String key, %s reader) {\n", reader);
+        pw.printf("      switch (key) {\n");
+        for (TableClass.Member member : tableClass.members()) {
+            pw.printf("        case \"%s\":\n", escapeQuotes(member.key()));
+            builderValue(pw, member);
+            pw.printf("          break;\n");
+        }
+        pw.printf("        default:\n");
+        pw.printf("          reader.readValue();\n");
+        pw.printf("      }\n");
+        pw.printf("    }\n");
+        pw.println();
+
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    private void builderFields(PrintWriter pw, TableClass tableClass) {
+        for (TableClass.Member member : tableClass.members()) {
+            if (member.table() != null)
+                pw.printf("    private %s.Builder %s;\n", member.table().qualifiedName(), fieldName(member));
+            else if (member.element() != null)
+                pw.printf("    private java.util.List<%s.Builder> %s;\n", member.element().qualifiedName(), fieldName(member));
+            else
+                pw.printf("    private %s %s;\n", fieldType(member), fieldName(member));
+            if (primitive(member) != null)
+                pw.printf("    private boolean %sPresent;\n", fieldName(member));
+        }
+        pw.println();
+    }
+
+    private void builderTables(PrintWriter pw, TableClass tableClass, String otherwise) {
+        pw.printf("      switch (key) {\n");
+        for (TableClass.Member member : tableClass.members()) {
+            String field = fieldName(member);
+            if (member.table() != null) {
+                pw.printf("        case \"%s\":\n", escapeQuotes(member.key()));
+                pw.printf("          if (%s == null)\n", field);
+                pw.printf("            %s = new %s.Builder();\n", field, member.table().qualifiedName());
+                pw.printf("          return %s;\n", field);
+            } else if (member.element() != null) {
+                pw.printf("        case \"%s\":\n", escapeQuotes(member.key()));
+                pw.printf("          return %s == null ? null : %s.get(%s.size() - 1);\n", field, field, field);
+            }
+        }
+        pw.printf("        default:\n");
+        pw.printf("          return %s;\n", otherwise);
+        pw.printf("      }\n");
+    }
+
+    private void builderElements(PrintWriter pw, TableClass tableClass, String otherwise) {
+        pw.printf("      switch (key) {\n");
+        for (TableClass.Member member : tableClass.members()) {
+            if (member.element() == null)
+                continue;
+            String field = fieldName(member);
+            String element = member.element().qualifiedName();
+            pw.printf("        case \"%s\":\n", escapeQuotes(member.key()));
+            pw.printf("          if (%s == null)\n", field);
+            pw.printf("            %s = new java.util.ArrayList<%s.Builder>();\n", field, element);
+            pw.printf("          %s.add(new %s.Builder());\n", field, element);
+            pw.printf("          return %s.get(%s.size() - 1);\n", field, field);
+        }
+        pw.printf("        default:\n");
+        pw.printf("          return %s;\n", otherwise);
+        pw.printf("      }\n");
+    }
+
+    private void builderValue(PrintWriter pw, TableClass.Member member) {
+        pw.printf("          %s;\n", readerAccessor(member));
+        if (primitive(member) != null)
+            pw.printf("          %sPresent = true;\n", fieldName(member));
+    }
+
+    private String readerAccessor(TableClass.Member member) {
+        String field = fieldName(member);
+        Object value = member.value();
+        if (value instanceof String)
+            return String.format("%s = reader.readString()", field);
+
+        if (value instanceof Boolean)
+            return String.format("%s = reader.readBoolean()", field);
+
+        if (value instanceof Long)
+            return String.format("%s = reader.readLong()", field);
+
+        if (value instanceof Date)
+            return String.format("%s = reader.readDate()", field);
+
+        if (value instanceof Double)
+            return String.format("%s = reader.readDouble()", field);
+
+        if (value instanceof List && primitiveArray(member) != null)
+            return String.format("%s = %s((java.util.List) reader.readList())",
+                    field,
+                    arrayConverter(primitiveArray(member)));
+
+        if (value instanceof List && member.element() != null)
+            return String.format("reader.readInlineTables(this, \"%s\")", escapeQuotes(member.key()));
+
+        if (value instanceof List)
+            return String.format("%s = (java.util.List) reader.readList()", field);
+
+        if (value instanceof Toml)
+            return String.format("reader.readInlineTable(table(\"%s\"))", escapeQuotes(member.key()));
+
+        throw new IllegalArgumentException("Unable to handle " + value);
+    }
+
+    private void constants(PrintWriter pw, TableClass tableClass) {
+        String className = tableClass.className();
+
+        constantFields(pw, tableClass);
+
+        List<String> entries = new ArrayList<>();
+        for (TableClass.Member member : tableClass.members()) {
+            entries.add(literal(member.key()));
+            entries.add(primitiveArray(member) != null ? literal(member.value()) : constantValue(member));
+        }
+        pw.printf("  private static final java.util.Map<java.lang.String,java.lang.Object> ENTRIES = %s;\n", entries.isEmpty()
+                ? "java.util.Collections.<java.lang.String,java.lang.Object> emptyMap()"
+                : "unmodifiableMap(" + String.join(", ", entries) + ")");
+        pw.println();
+
+        pw.printf("  public static final %s INSTANCE = new %s();\n", className, className);
+        pw.println();
+
+        pw.printf("  private %s () {\n", className);
+        pw.printf("  }\n");
+        pw.println();
+
+        pw.printf("  private static java.util.Map<java.lang.String,java.lang.Object> unmodifiableMap(java.lang.Object... entries) {\n");
+        pw.printf("    java.util.Map<java.lang.String,java.lang.Object> map = new java.util.LinkedHashMap<java.lang.String,java.lang.Object>();\n");
+        pw.printf("    for (int i = 0; i < entries.length; i += 2)\n");
+        pw.printf("      map.put((java.lang.String) entries[i], entries[i + 1]);\n");
+        pw.printf("    return java.util.Collections.unmodifiableMap(map);\n");
+        pw.printf("  }\n");
+        pw.println();
+    }
+
+    private void constantFields(PrintWriter pw, TableClass tableClass) {
+        for (TableClass.Member member : tableClass.members()) {
+            Object value = member.value();
+            if (member.table() != null)
+                continue;
+            else if (primitive(member) != null || value instanceof String)
+                pw.printf("  public static final %s %s = %s;\n", type(member, false), constantName(member), literal(value));
+            else if (value instanceof Long || value instanceof Double || value instanceof Boolean)
+                pw.printf("  public static final %s %s = %s;\n", PRIMITIVES.get(value.getClass()), constantName(member),
+                        literal(value));
+            else if (value instanceof Date)
+                pw.printf("  private static final long %s = %dL;\n", constantName(member), ((Date) value).getTime());
+            else if (primitiveArray(member) != null)
+                pw.printf("  private static final %s %s = %s;\n", type(member, false), constantName(member),
+                        primitiveArrayLiteral(primitiveArray(member), (List<?>) value));
+            else
+                pw.printf("  private static final %s %s = %s;\n", fieldType(member), constantName(member), literal(value));
+        }
+        pw.println();
+    }
+
+    private String constantName(TableClass.Member member) {
+        String name = CaseFormat.LOWER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, member.name());
+        if ("INSTANCE".equals(name) || "ENTRIES".equals(name))
+            return name + "_VALUE";
+        return name;
+    }
+
+    private String constantValue(TableClass.Member member) {
+        if (member.table() != null)
+            return member.table().qualifiedName() + ".INSTANCE";
+        if (member.value() instanceof Date)
+            return String.format("new java.util.Date(%s)", constantName(member));
+        if (primitiveArray(member) != null)
+            return constantName(member) + ".clone()";
+        return constantName(member);
+    }
+
+    private String primitiveArrayLiteral(String primitive, List<?> values) {
+        return values.stream()
+                .map(value -> literal(value))
+                .collect(Collectors.joining(", ", "new " + primitive + "[] { ", " }"));
+    }
+
+    private String literal(Object value) {
+        if (value instanceof String)
+            return stringLiteral((String) value);
+
+        if (value instanceof Boolean)
+            return value.toString();
+
+        if (value instanceof Long)
+            return value + "L";
 
-            pw.printf("}\n", className);
+        if (value instanceof Double) {
+            Double number = (Double) value;
+            if (number.isNaN())
+                return "java.lang.Double.NaN";
+            if (number.isInfinite())
+                return number > 0 ? "java.lang.Double.POSITIVE_INFINITY" : "java.lang.Double.NEGATIVE_INFINITY";
+            return value + "D";
         }
+
+        if (value instanceof Date)
+            return String.format("new java.util.Date(%dL)", ((Date) value).getTime());
+
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            if (list.isEmpty())
+                return "java.util.Collections.emptyList()";
+            return list.stream()
+                    .map(item -> literal(item))
+                    .collect(Collectors.joining(", ", "java.util.Collections.unmodifiableList(java.util.Arrays.asList(", "))"));
+        }
+
+        if (value instanceof Map)
+            return ((Map<?, ?>) value).isEmpty()
+                    ? "java.util.Collections.<java.lang.String,java.lang.Object> emptyMap()"
+                    : new TreeMap<>((Map<?, ?>) value).entrySet().stream()
+                            .map(entry -> literal(entry.getKey()) + ", " + literal(entry.getValue()))
+                            .collect(Collectors.joining(", ", "unmodifiableMap(", ")"));
+
+        if (value instanceof Toml)
+            return literal(((Toml) value).toMap());
+
+        throw new IllegalArgumentException("Unable to handle " + value);
+    }
+
+    private String stringLiteral(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\')
+                literal.append('\\').append(c);
+            else if (c == '\n')
+                literal.append("\\n");
+            else if (c == '\r')
+                literal.append("\\r");
+            else if (c == '\t')
+                literal.append("\\t");
+            else if (c < 0x20 || c == 0x7f)
+                literal.append(String.format("\\%03o", (int) c));
+            else if (c > 0x7e)
+                literal.append(String.format("\\u%04x", (int) c));
+            else
+                literal.append(c);
+        }
+        return literal.append('"').toString();
+    }
+
+    private void arrayConverters(PrintWriter pw, TableClass tableClass) {
+        Set<String> primitives = tableClass.members().stream()
+                .map(member -> primitiveArray(member))
+                .filter(primitive -> primitive != null)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        for (String primitive : primitives) {
+            String wrapper = PRIMITIVES.inverse().get(primitive).getName();
+            pw.printf("  private static %s[] %s(java.util.List<%s> list) {\n", primitive, arrayConverter(primitive), wrapper);
+            pw.printf("    if (list == null)\n");
+            pw.printf("      return null;\n");
+            pw.printf("    %s[] array = new %s[list.size()];\n", primitive, primitive);
+            pw.printf("    for (int i = 0; i < array.length; i++)\n");
+            pw.printf("      array[i] = list.get(i);\n");
+            pw.printf("    return array;\n");
+            pw.printf("  }\n");
+            pw.println();
+        }
+    }
+
+    private String arrayConverter(String primitive) {
+        return "to" + CaseFormat.LOWER_CAMEL.to(CaseFormat.UPPER_CAMEL, primitive) + "Array";
     }
 
     private String escapeReservedWords(String key) {
@@ -143,38 +2010,75 @@ public class Generator {
         return key;
     }
 
-    private String accessor(String propertyName, Object value) {
-        String fieldName = propertyName.replace("\"", "\\\"");
+    private String escapeQuotes(String key) {
+        return key.replace("\"", "\\\"");
+    }
+
+    private String accessor(TableClass.Member member) {
+        return accessor(member, "toml");
+    }
+
+    /**
+     * @param toml
+     *            expression of the toml holding the member
+     */
+    private String accessor(TableClass.Member member, String toml) {
+        String fieldName = escapeQuotes(member.key());
+        Object value = member.value();
         if (value instanceof String)
-            return String.format("toml.getString(\"%s\")", fieldName);
+            return String.format("%s.getString(\"%s\")", toml, fieldName);
 
         if (value instanceof Boolean)
-            return String.format("toml.getBoolean(\"%s\")", fieldName);
+            return String.format("%s.getBoolean(\"%s\")", toml, fieldName);
 
         if (value instanceof Long)
-            return String.format("toml.getLong(\"%s\")", fieldName);
+            return String.format("%s.getLong(\"%s\")", toml, fieldName);
 
         if (value instanceof Date)
-            return String.format("toml.getDate(\"%s\")", fieldName);
+            return String.format("%s.getDate(\"%s\")", toml, fieldName);
 
         if (value instanceof Double)
-            return String.format("toml.getDouble(\"%s\")", fieldName);
+            return String.format("%s.getDouble(\"%s\")", toml, fieldName);
+
+        if (member.element() != null)
+            return String.format("%s.%s.of(%s, \"%s\", %s::new)",
+                    packageName,
+                    TABLE_LIST,
+                    toml,
+                    fieldName,
+                    member.element().qualifiedName());
+
+        if (value instanceof List && primitiveArray(member) != null)
+            return String.format("%s(%s.<%s> getList(\"%s\"))",
+                    arrayConverter(primitiveArray(member)),
+                    toml,
+                    PRIMITIVES.inverse().get(primitiveArray(member)).getName(),
+                    fieldName);
 
         if (value instanceof List)
-            return String.format("toml.getList(\"%s\")", fieldName);
+            return String.format("%s.getList(\"%s\")", toml, fieldName);
 
-        if (value instanceof Toml) {
-            String subpackage = appendPackage(packageName, this.fileName);
-            return String.format("new %s(toml.getTable(\"%s\"))",
-                    subpackage + "." + asClassName(fieldName),
+        if (value instanceof Toml)
+            return String.format("new %s(%s.getTable(\"%s\"))",
+                    member.table().qualifiedName(),
+                    toml,
                     fieldName);
-        }
 
         throw new IllegalArgumentException("Unable to handle " + value);
     }
 
-    private String defaultValueAccessor(String propertyName, Object value) {
-        String fieldName = propertyName.replace("\"", "\\\"");
+    private String snapshotAccessor(TableClass.Member member) {
+        if (member.table() != null)
+            return String.format("toml.containsTable(\"%s\") ? %s : null",
+                    escapeQuotes(member.key()),
+                    accessor(member));
+
+        return accessor(member);
+    }
+
+    private String defaultValueAccessor(TableClass.Member member) {
+        String fieldName = escapeQuotes(member.key());
+        Object value = member.value();
         if (value instanceof String)
             return String.format("toml.getString(\"%s\", defaultValue)", fieldName);
 
@@ -193,13 +2097,6 @@ public class Generator {
         if (value instanceof List)
             return String.format("toml.getList(\"%s\", defaultValue)", fieldName);
 
-        if (value instanceof Toml) {
-            String subpackage = appendPackage(packageName, this.fileName);
-            return String.format("new %s(toml.getTable(\"%s\"), defaultValue)",
-                    subpackage + "." + asClassName(fieldName),
-                    fieldName);
-        }
-
         throw new IllegalArgumentException("Unable to handle " + value);
     }
 
@@ -209,33 +2106,68 @@ public class Generator {
                 config.classSuffix());
     }
 
-    private String type(String name, Object value, boolean asParameter) throws IOException {
-        if (value instanceof com.moandjiezana.toml.Toml) {
-            Toml table = (Toml) value;
-
-            String subpackage = appendPackage(packageName, this.fileName);
-            new Generator(name, subpackage, table, fileStreamCreator, config).generate();
-            return subpackage + "." + asClassName(name);
-        }
+    private String type(TableClass.Member member, boolean asParameter) {
+        Object value = member.value();
+        if (member.table() != null)
+            return member.table().qualifiedName();
 
         if (value instanceof List) {
             List<?> content = (List<?>) value;
 
             Class<?> listType = listType(content);
 
+            if (member.element() != null)
+                return String.format("java.util.List<%s>", member.element().qualifiedName());
             if (listType == null)
-                return "<T> java.util.List<T>";
+                if (asParameter)
+                    return "java.util.List<T>";
+                else
+                    return "<T> java.util.List<T>";
             if (List.class.isAssignableFrom(listType))
                 if (asParameter)
                     return "java.util.List<java.util.List<T>>";
                 else
                     return "<T> java.util.List<java.util.List<T>>";
+            else if (primitiveArray(member) != null)
+                return primitiveArray(member) + "[]";
+            else if (Toml.class.equals(listType) && config.accessMode() == AccessMode.CONSTANT)
+                return "java.util.List<java.util.Map<java.lang.String,java.lang.Object>>";
             else
                 return String.format("java.util.List<%s>", listType.getName());
         }
+        if (primitive(member) != null)
+            return primitive(member);
         return value.getClass().getName();
     }
 
+    private String fieldType(TableClass.Member member) {
+        String type = type(member, false);
+        if (type.startsWith("<T>"))
+            return "java.util.List";
+        return type;
+    }
+
+    private String primitive(TableClass.Member member) {
+        if (!config.primitives())
+            return null;
+        return PRIMITIVES.get(member.value().getClass());
+    }
+
+    private String primitiveArray(TableClass.Member member) {
+        if (!config.primitives() || !(member.value() instanceof List))
+            return null;
+        Class<?> listType = listType((List<?>) member.value());
+        if (listType == null)
+            return null;
+        return PRIMITIVES.get(listType);
+    }
+
+    private String fieldName(TableClass.Member member) {
+        if (Arrays.asList("toml", "lazy", "binary", "offset").contains(member.name()))
+            return member.name() + "F";
+        return member.name();
+    }
+
     private Class<?> listType(List<?> content) {
         Set<Class<?>> listTypes = content.stream()
                 .map(item -> item.getClass())
@@ -23,7 +23,7 @@ import org.apache.maven.plugins.annotations.Parameter;
 import java.io.File;
 import java.util.List;
 
-@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES)
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
 public class GeneratorMojo extends AbstractGeneratorMojo {
 
     @Parameter(defaultValue = "${project.resources}", readonly = true)
@@ -32,6 +32,15 @@ public class GeneratorMojo extends AbstractGeneratorMojo {
     @Parameter(defaultValue = "${project.build.directory}/generated-sources/toml", property = "toml.outputDirectory")
     private File outputDirectory;
 
+    @Parameter(defaultValue = "${project.build.outputDirectory}", property = "toml.binaryDirectory")
+    private File binaryDirectory;
+
+    @Parameter(defaultValue = "${project.build.directory}/toml-maven-plugin/generate.index", property = "toml.index")
+    private File index;
+
+    @Parameter(defaultValue = "${project.build.directory}/toml-maven-plugin/generate-metrics.json", property = "toml.metrics")
+    private File metrics;
+
     protected void addToSources() {
         project.addCompileSourceRoot(outputDirectory().getAbsolutePath());
     }
@@ -46,4 +55,19 @@ public class GeneratorMojo extends AbstractGeneratorMojo {
         return outputDirectory;
     }
 
+    @Override
+    public File binaryDirectory() {
+        return binaryDirectory;
+    }
+
+    @Override
+    protected File indexFile() {
+        return index;
+    }
+
+    @Override
+    protected File metricsFile() {
+        return metrics;
+    }
+
 }
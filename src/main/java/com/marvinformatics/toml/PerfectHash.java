@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collision free slots for a fixed set of <code>String.hashCode()</code> values, computed while generating so the
+ * generated classes only need a seed per bucket to find a key. Keys are first spread into buckets, then each bucket,
+ * largest first, gets the smallest seed that lands all its hashes on free slots (hash and displace).
+ * <p>
+ * {@link #mix(int, int)} and {@link #slot(int)} are mirrored by the generated code, so both must stay in sync.
+ */
+class PerfectHash {
+
+    private static final int MAX_SEED = Character.MAX_VALUE;
+
+    private final char[] seeds;
+
+    private final int size;
+
+    private PerfectHash(char[] seeds, int size) {
+        this.seeds = seeds;
+        this.size = size;
+    }
+
+    static PerfectHash of(Collection<Integer> hashes) {
+        Set<Integer> distinct = new LinkedHashSet<>(hashes);
+        int size = Math.max(1, distinct.size() + distinct.size() / 4);
+        while (true) {
+            PerfectHash hash = of(distinct, size);
+            if (hash != null)
+                return hash;
+            size *= 2;
+        }
+    }
+
+    private static PerfectHash of(Set<Integer> hashes, int size) {
+        int bucketCount = Math.max(1, hashes.size() / 2);
+        List<List<Integer>> buckets = new ArrayList<>();
+        for (int i = 0; i < bucketCount; i++)
+            buckets.add(new ArrayList<>());
+        for (Integer hash : hashes)
+            buckets.get(mix(hash, 0) % bucketCount).add(hash);
+
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < bucketCount; i++)
+            order.add(i);
+        order.sort(Comparator.comparing((Integer bucket) -> buckets.get(bucket).size()).reversed());
+
+        char[] seeds = new char[bucketCount];
+        boolean[] used = new boolean[size];
+        for (Integer bucket : order) {
+            List<Integer> members = buckets.get(bucket);
+            if (members.isEmpty())
+                break;
+
+            int seed = 0;
+            while (!place(members, seed, used, size))
+                if (++seed > MAX_SEED)
+                    return null;
+            seeds[bucket] = (char) seed;
+        }
+        return new PerfectHash(seeds, size);
+    }
+
+    private static boolean place(List<Integer> members, int seed, boolean[] used, int size) {
+        List<Integer> slots = new ArrayList<>();
+        for (Integer hash : members) {
+            int slot = mix(hash, seed) % size;
+            if (used[slot] || slots.contains(slot))
+                return false;
+            slots.add(slot);
+        }
+        slots.forEach(slot -> used[slot] = true);
+        return true;
+    }
+
+    static int mix(int hash, int seed) {
+        int mixed = (hash ^ seed) * 0x9e3779b9;
+        return (mixed ^ mixed >>> 15) & 0x7fffffff;
+    }
+
+    int slot(int hash) {
+        return mix(hash, seeds[mix(hash, 0) % seeds.length]) % size;
+    }
+
+    /**
+     * @return one seed per bucket, meant to be stored as a string constant
+     */
+    String seeds() {
+        return new String(seeds);
+    }
+
+    int size() {
+        return size;
+    }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import com.moandjiezana.toml.Toml;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One generated class in the plan built by {@link Generator} before any source is written.
+ */
+class TableClass {
+
+    static class Member {
+
+        private final String key;
+
+        private final String name;
+
+        private final Object value;
+
+        private final TableClass table;
+
+        private final TableClass element;
+
+        /**
+         * @param element
+         *            class generated for each entry when <code>value</code> is an array of tables
+         */
+        Member(String key, String name, Object value, TableClass table, TableClass element) {
+            this.key = key;
+            this.name = name;
+            this.value = value;
+            this.table = table;
+            this.element = element;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public Object value() {
+            return value;
+        }
+
+        public TableClass table() {
+            return table;
+        }
+
+        public TableClass element() {
+            return element;
+        }
+
+    }
+
+    private final String packageName;
+
+    private final String className;
+
+    private final Toml toml;
+
+    private final List<Member> members = new ArrayList<>();
+
+    private TableClass valueClass;
+
+    TableClass(String packageName, String className, Toml toml) {
+        this.packageName = packageName;
+        this.className = className;
+        this.toml = toml;
+    }
+
+    void add(Member member) {
+        members.add(member);
+    }
+
+    public String packageName() {
+        return packageName;
+    }
+
+    public String className() {
+        return className;
+    }
+
+    public String qualifiedName() {
+        return packageName + "." + className;
+    }
+
+    public Toml toml() {
+        return toml;
+    }
+
+    public List<Member> members() {
+        return Collections.unmodifiableList(members);
+    }
+
+    /**
+     * @return the class shared by every member, when this table holds nothing but identically shaped tables
+     */
+    public TableClass valueClass() {
+        return valueClass;
+    }
+
+    void valueClass(TableClass valueClass) {
+        this.valueClass = valueClass;
+    }
+
+}
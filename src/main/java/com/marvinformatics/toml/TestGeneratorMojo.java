@@ -23,7 +23,7 @@ import org.apache.maven.plugins.annotations.Parameter;
 import java.io.File;
 import java.util.List;
 
-@Mojo(name = "test-generate", defaultPhase = LifecyclePhase.GENERATE_TEST_SOURCES)
+@Mojo(name = "test-generate", defaultPhase = LifecyclePhase.GENERATE_TEST_SOURCES, threadSafe = true)
 public class TestGeneratorMojo extends AbstractGeneratorMojo {
 
     @Parameter(defaultValue = "${project.testResources}", readonly = true)
@@ -32,6 +32,15 @@ public class TestGeneratorMojo extends AbstractGeneratorMojo {
     @Parameter(defaultValue = "${project.build.directory}/generated-test-sources/toml", property = "toml.testOutputDirectory")
     private File testOutputDirectory;
 
+    @Parameter(defaultValue = "${project.build.testOutputDirectory}", property = "toml.testBinaryDirectory")
+    private File testBinaryDirectory;
+
+    @Parameter(defaultValue = "${project.build.directory}/toml-maven-plugin/test-generate.index", property = "toml.testIndex")
+    private File index;
+
+    @Parameter(defaultValue = "${project.build.directory}/toml-maven-plugin/test-generate-metrics.json", property = "toml.testMetrics")
+    private File metrics;
+
     protected void addToSources() {
         project.addTestCompileSourceRoot(outputDirectory().getAbsolutePath());
     }
@@ -44,4 +53,16 @@ public class TestGeneratorMojo extends AbstractGeneratorMojo {
         return testOutputDirectory;
     }
 
+    public File binaryDirectory() {
+        return testBinaryDirectory;
+    }
+
+    protected File indexFile() {
+        return index;
+    }
+
+    protected File metricsFile() {
+        return metrics;
+    }
+
 }
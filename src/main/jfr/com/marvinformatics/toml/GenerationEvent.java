@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import java.io.File;
+
+/**
+ * Flight recorder event for the generation of one toml file. Only compiled by the <code>jfr</code> profile, on JDKs
+ * shipping <code>jdk.jfr</code>, so {@link GenerationMetrics} looks it up reflectively.
+ */
+@Name("com.marvinformatics.toml.Generation")
+@Label("TOML Generation")
+@Category({ "Maven", "TOML" })
+@Description("Parsing a toml file and generating its java sources")
+class GenerationEvent extends Event {
+
+    @Label("File")
+    String file;
+
+    @Label("Parse Time")
+    @Timespan
+    long parseTime;
+
+    @Label("Generation Time")
+    @Timespan
+    long generateTime;
+
+    @Label("Classes")
+    int classes;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytes;
+
+    @Label("Skipped Sources")
+    int skipped;
+
+    static Object start() {
+        GenerationEvent event = new GenerationEvent();
+        event.begin();
+        return event;
+    }
+
+    static void finish(Object started, File file, long parseTime, long generateTime, int classes, long bytes,
+            int skipped) {
+        GenerationEvent event = (GenerationEvent) started;
+        event.end();
+        if (!event.shouldCommit())
+            return;
+
+        event.file = file.getPath();
+        event.parseTime = parseTime;
+        event.generateTime = generateTime;
+        event.classes = classes;
+        event.bytes = bytes;
+        event.skipped = skipped;
+        event.commit();
+    }
+
+}
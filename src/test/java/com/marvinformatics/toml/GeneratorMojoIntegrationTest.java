@@ -16,12 +16,20 @@
 package com.marvinformatics.toml;
 
 import org.assertj.core.api.Assertions;
+import org.codehaus.plexus.util.FileUtils;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import io.takari.maven.testing.TestResources;
 import io.takari.maven.testing.executor.MavenRuntime;
@@ -58,6 +66,172 @@ public class GeneratorMojoIntegrationTest {
                 .getBasedir();
     }
 
+    @Test
+    public void snapshot() throws Exception {
+        maven.forProject(resources.getBasedir("wikipedia"))
+                .withCliOption("-Dtoml.accessMode=snapshot")
+                .execute("install")
+                .assertErrorFreeLog()
+                .assertLogText("Writting com.marvinformatics.toml.TOMLWikipediaConfig");
+    }
+
+    @Test
+    public void primitives() throws Exception {
+        maven.forProject(resources.getBasedir("wikipedia"))
+                .withCliOption("-Dtoml.primitives=true")
+                .execute("install")
+                .assertErrorFreeLog()
+                .assertLogText("Writting com.marvinformatics.toml.wikipedia.TOMLDatabaseConfig");
+    }
+
+    @Test
+    public void constant() throws Exception {
+        maven.forProject(resources.getBasedir("constant"))
+                .execute("install")
+                .assertErrorFreeLog()
+                .assertLogText("Writting com.marvinformatics.toml.TOMLEmbeddedConfig");
+    }
+
+    @Test
+    public void parser() throws Exception {
+        maven.forProject(resources.getBasedir("parser"))
+                .execute("install")
+                .assertErrorFreeLog()
+                .assertLogText("Writting com.marvinformatics.toml.TomlReader")
+                .assertLogText("Writting com.marvinformatics.toml.service.servers.TOMLServersEntryConfig");
+    }
+
+    @Test
+    public void reloadable() throws Exception {
+        maven.forProject(resources.getBasedir("reloadable"))
+                .execute("install")
+                .assertErrorFreeLog()
+                .assertLogText("Writting com.marvinformatics.toml.Reloadable");
+    }
+
+    @Test
+    public void lazy() throws Exception {
+        maven.forProject(resources.getBasedir("lazy"))
+                .execute("install")
+                .assertErrorFreeLog()
+                .assertLogText("Writting com.marvinformatics.toml.LazyToml");
+    }
+
+    @Test
+    public void incremental() throws Exception {
+        File basedir = resources.getBasedir("wikipedia");
+        maven.forProject(basedir)
+                .execute("generate-sources")
+                .assertErrorFreeLog()
+                .assertLogText("Generated 1 toml file(s), 0 up to date");
+
+        maven.forProject(basedir)
+                .execute("generate-sources")
+                .assertErrorFreeLog()
+                .assertLogText("Generated 0 toml file(s), 1 up to date")
+                .assertNoLogText("Writting");
+
+        File servers = new File(basedir, "target/generated-sources/toml/com/marvinformatics/toml/wikipedia/servers");
+        Assertions.assertThat(new File(servers, "TOMLAlphaConfig.java"))
+                .exists();
+
+        Files.write(new File(basedir, "src/main/resources/wikipedia.toml").toPath(),
+                "title = \"TOML Example\"\n".getBytes(StandardCharsets.UTF_8));
+
+        maven.forProject(basedir)
+                .withCliOption("-X")
+                .execute("generate-sources")
+                .assertErrorFreeLog()
+                .assertLogText("Generated 1 toml file(s), 0 up to date")
+                .assertLogText("Removed stale source");
+
+        Assertions.assertThat(new File(servers, "TOMLAlphaConfig.java"))
+                .doesNotExist();
+    }
+
+    @Test
+    public void incrementalOutputDirectory() throws Exception {
+        File basedir = resources.getBasedir("wikipedia");
+        maven.forProject(basedir)
+                .execute("generate-sources")
+                .assertErrorFreeLog()
+                .assertLogText("Generated 1 toml file(s), 0 up to date");
+
+        File relocated = new File(basedir, "target/relocated");
+        maven.forProject(basedir)
+                .withCliOption("-Dtoml.outputDirectory=" + relocated.getAbsolutePath())
+                .execute("generate-sources")
+                .assertErrorFreeLog()
+                .assertLogText("Generated 1 toml file(s), 0 up to date");
+
+        Assertions.assertThat(new File(relocated, "com/marvinformatics/toml/wikipedia/servers/TOMLAlphaConfig.java"))
+                .exists();
+    }
+
+    @Test
+    public void metrics() throws Exception {
+        File basedir = resources.getBasedir("wikipedia");
+        maven.forProject(basedir)
+                .execute("generate-sources")
+                .assertErrorFreeLog()
+                .assertLogText("Parse ms")
+                .assertLogText("src/main/resources/wikipedia.toml");
+
+        Assertions.assertThat(new String(Files.readAllBytes(
+                new File(basedir, "target/toml-maven-plugin/generate-metrics.json").toPath()), StandardCharsets.UTF_8))
+                .contains("\"status\": \"GENERATED\"")
+                .contains("\"parseNanos\": ");
+    }
+
+    @Test
+    public void reactorCache() throws Exception {
+        File basedir = maven.forProject(resources.getBasedir("reactor"))
+                .withCliOption("-X")
+                .execute("install")
+                .assertErrorFreeLog()
+                .assertLogText("Reusing sources generated by another execution for:")
+                .getBasedir();
+
+        Assertions.assertThat(new File(basedir,
+                "beta/target/generated-sources/toml/com/marvinformatics/toml/TOMLSharedConfig.java"))
+                .exists();
+    }
+
+    @Test
+    public void parallelReactor() throws Exception {
+        File serial = resources.getBasedir("reactor");
+        File parallel = new File(serial.getParentFile(), serial.getName() + "_parallel");
+        FileUtils.copyDirectoryStructure(serial, parallel);
+
+        maven.forProject(serial)
+                .execute("install")
+                .assertErrorFreeLog();
+        maven.forProject(parallel)
+                .withCliOptions("-T", "4")
+                .execute("install")
+                .assertErrorFreeLog()
+                .assertNoLogText("threadSafe");
+
+        Assertions.assertThat(generated(parallel))
+                .isEqualTo(generated(serial))
+                .containsKey("delta/target/classes/com/marvinformatics/toml/TOMLSharedConfig.tomlbin");
+    }
+
+    /**
+     * @return the content of every generated source and binary resource, by path relative to <code>basedir</code>
+     */
+    private static Map<String, String> generated(File basedir) throws Exception {
+        Map<String, String> generated = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(basedir.toPath())) {
+            for (Path path : paths.collect(Collectors.toList()))
+                if (path.toString().contains("generated-sources") && Files.isRegularFile(path)
+                        || path.toString().endsWith(".tomlbin"))
+                    generated.put(basedir.toPath().relativize(path).toString().replace(File.separatorChar, '/'),
+                            new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1));
+        }
+        return generated;
+    }
+
     @Test
     public void toml4jExamples() throws Exception {
         File project = maven.forProject(resources.getBasedir("toml4j"))
@@ -77,4 +251,20 @@ public class GeneratorMojoIntegrationTest {
                 .exists();
     }
 
+    @Test
+    public void parallel() throws Exception {
+        File project = maven.forProject(resources.getBasedir("toml4j"))
+                .execute("com.marvinformatics.toml:toml-maven-plugin:test-generate",
+                        "test-compile",
+                        "-Dtoml.excludes=**/invalid/*,**/valid/*,**/hard_example_errors.toml",
+                        "-Dtoml.threads=4")
+                .assertErrorFreeLog()
+                .assertLogText("toml-maven-plugin:0.1-SNAPSHOT:test-generate")
+                .getBasedir();
+
+        File hardBit = new File(project, "target/test-classes/com/marvinformatics/toml/hard_example/the/hard/Bit.class");
+        Assertions.assertThat(hardBit)
+                .exists();
+    }
+
 }
@@ -0,0 +1,672 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import com.google.common.base.CaseFormat;
+import com.google.common.base.Charsets;
+import com.moandjiezana.toml.Toml;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public class GeneratorTest {
+
+    @Rule
+    public final TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void nestedTablesAreWrittenOnce() throws Exception {
+        final Toml toml = new Toml().read("[a.b.c.d.e.f.g.h]\n"
+                + "key = \"value\"\n");
+
+        final List<File> opened = new ArrayList<>();
+        new Generator("deep", "com.marvinformatics.toml", toml, file -> {
+            opened.add(file);
+            return new ByteArrayOutputStream();
+        }, new TestConfig(temp.getRoot())).generate();
+
+        Assertions.assertThat(opened)
+                .hasSize(9)
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void unchangedSourcesAreNotRewritten() throws Exception {
+        final Toml toml = new Toml().read("title = \"TOML Example\"\n"
+                + "[owner]\n"
+                + "name = \"Tom\"\n");
+
+        final List<File> opened = new ArrayList<>();
+        final Generator.OutputCreator creator = file -> {
+            opened.add(file);
+            return new FileOutputStream(file);
+        };
+
+        final Generator first = new Generator("unchanged", "com.marvinformatics.toml", toml, creator,
+                new TestConfig(temp.getRoot()));
+        first.generate();
+        Assertions.assertThat(opened)
+                .hasSize(2);
+        Assertions.assertThat(first.unchanged())
+                .isEqualTo(0);
+
+        opened.clear();
+        final Generator second = new Generator("unchanged", "com.marvinformatics.toml", toml, creator,
+                new TestConfig(temp.getRoot()));
+        second.generate();
+        Assertions.assertThat(opened)
+                .isEmpty();
+        Assertions.assertThat(second.unchanged())
+                .isEqualTo(2);
+        Assertions.assertThat(second.sources())
+                .isEqualTo(first.sources());
+    }
+
+    @Test
+    public void snapshotResolvesKeysInConstructor() throws Exception {
+        final Toml toml = new Toml().read("title = \"TOML Example\"\n"
+                + "[owner]\n"
+                + "name = \"Tom\"\n");
+
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.accessMode = AccessMode.SNAPSHOT;
+        new Generator("snapshot", "com.marvinformatics.toml", toml, file -> new FileOutputStream(file), config)
+                .generate();
+
+        String source = read("com/marvinformatics/toml/Snapshot.java");
+        Assertions.assertThat(source)
+                .contains("private final java.lang.String title;")
+                .contains("this.title = toml.getString(\"title\");")
+                .contains("return title;")
+                .contains("return title != null ? title : defaultValue;")
+                .contains("private final com.marvinformatics.toml.snapshot.Owner owner;");
+    }
+
+    @Test
+    public void primitives() throws Exception {
+        final Toml toml = new Toml().read("ports = [ 8001, 8001, 8002 ]\n"
+                + "ratios = [ 0.5, 1.5 ]\n"
+                + "connection_max = 5000\n"
+                + "enabled = true\n");
+
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.primitives = true;
+        new Generator("primitives", "com.marvinformatics.toml", toml, file -> new FileOutputStream(file), config)
+                .generate();
+
+        String source = read("com/marvinformatics/toml/Primitives.java");
+        Assertions.assertThat(source)
+                .contains("public long connectionMax(){")
+                .contains("public long connectionMax(long defaultValue){")
+                .contains("public boolean enabled(boolean defaultValue){")
+                .contains("public long[] ports(long[] defaultValue){")
+                .contains("public double[] ratios(){")
+                .contains("private static long[] toLongArray(java.util.List<java.lang.Long> list) {");
+    }
+
+    @Test
+    public void lexicalOrderIsReproducible() throws Exception {
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.order = MemberOrder.LEXICAL;
+
+        final String first = "zeta = 1\nalpha = 2\nmid = 3\n[b]\ny = 1\nx = 2\n[a]\nk = 1\n";
+        new Generator("ordered", "com.marvinformatics.toml", new Toml().read(first), first,
+                file -> new FileOutputStream(file), config).generate();
+        String firstSource = read("com/marvinformatics/toml/Ordered.java");
+
+        final String second = "[a]\nk = 1\n[b]\nx = 2\ny = 1\n";
+        new Generator("ordered", "com.marvinformatics.toml", new Toml().read("mid = 3\nalpha = 2\nzeta = 1\n" + second),
+                null, file -> new FileOutputStream(file), config).generate();
+        String secondSource = read("com/marvinformatics/toml/Ordered.java");
+
+        Assertions.assertThat(secondSource)
+                .isEqualTo(firstSource);
+        Assertions.assertThat(firstSource.indexOf("alpha()"))
+                .isLessThan(firstSource.indexOf("mid()"));
+        Assertions.assertThat(firstSource.indexOf("mid()"))
+                .isLessThan(firstSource.indexOf("zeta()"));
+    }
+
+    @Test
+    public void documentOrder() throws Exception {
+        final String document = "zeta = 1\n"
+                + "alpha = [\n"
+                + "  \"x = 1\",\n"
+                + "]\n"
+                + "[servers.beta]\n"
+                + "ip = \"10.0.0.2\"\n"
+                + "[servers.alpha]\n"
+                + "ip = \"10.0.0.1\"\n"
+                + "[owner]\n"
+                + "name = \"Tom\"\n";
+
+        new Generator("document", "com.marvinformatics.toml", new Toml().read(document), document,
+                file -> new FileOutputStream(file), new TestConfig(temp.getRoot())).generate();
+
+        String root = read("com/marvinformatics/toml/Document.java");
+        Assertions.assertThat(root.indexOf("zeta()"))
+                .isLessThan(root.indexOf("alpha()"));
+        Assertions.assertThat(root.indexOf("alpha()"))
+                .isLessThan(root.indexOf("servers()"));
+        Assertions.assertThat(root.indexOf("servers()"))
+                .isLessThan(root.indexOf("owner()"));
+        Assertions.assertThat(root)
+                .doesNotContain(" x()");
+
+        String servers = read("com/marvinformatics/toml/document/Servers.java");
+        Assertions.assertThat(servers.indexOf("beta()"))
+                .isLessThan(servers.indexOf("alpha()"));
+    }
+
+    @Test
+    public void emptyArrays() throws Exception {
+        final Toml toml = new Toml().read("empty = []\n"
+                + "nested = [ [], [] ]\n");
+
+        new Generator("empty", "com.marvinformatics.toml", toml, file -> new FileOutputStream(file),
+                new TestConfig(temp.getRoot())).generate();
+
+        Assertions.assertThat(read("com/marvinformatics/toml/Empty.java"))
+                .contains("public <T> java.util.List<T> empty(java.util.List<T> defaultValue){")
+                .contains("public <T> java.util.List<java.util.List<T>> nested(java.util.List<java.util.List<T>> defaultValue){");
+    }
+
+    @Test
+    public void tableArrays() throws Exception {
+        final Toml toml = new Toml().read("[[products]]\n"
+                + "name = \"Hammer\"\n"
+                + "[[products]]\n"
+                + "name = \"Nail\"\n"
+                + "color = \"gray\"\n");
+
+        final Generator generator = new Generator("arrays", "com.marvinformatics.toml", toml,
+                file -> new FileOutputStream(file), new TestConfig(temp.getRoot()));
+        generator.generate();
+
+        Assertions.assertThat(generator.sources())
+                .contains(new File(temp.getRoot(), "com/marvinformatics/toml/TableList.java"));
+        Assertions.assertThat(read("com/marvinformatics/toml/Arrays.java"))
+                .contains("public java.util.List<com.marvinformatics.toml.arrays.Products> products(){")
+                .contains("com.marvinformatics.toml.TableList.of(toml, \"products\", com.marvinformatics.toml.arrays.Products::new)");
+        Assertions.assertThat(read("com/marvinformatics/toml/arrays/Products.java"))
+                .contains("public java.lang.String name(){")
+                .contains("public java.lang.String color(){");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tableArraysAgreeOnTypes() throws Exception {
+        final Toml toml = new Toml().read("[[products]]\n"
+                + "size = 1\n"
+                + "tags = []\n"
+                + "[[products]]\n"
+                + "size = 1.5\n"
+                + "tags = [ \"small\" ]\n");
+
+        new Generator("mixed", "com.marvinformatics.toml", toml, file -> new FileOutputStream(file),
+                new TestConfig(temp.getRoot())).generate();
+    }
+
+    @Test
+    public void deduplicate() throws Exception {
+        final Toml toml = new Toml().read("[servers.alpha]\n"
+                + "ip = \"10.0.0.1\"\n"
+                + "[servers.beta]\n"
+                + "ip = \"10.0.0.2\"\n"
+                + "[clients.alpha]\n"
+                + "ip = \"10.0.0.3\"\n"
+                + "[clients.omega]\n"
+                + "port = 8001\n");
+
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.deduplicate = true;
+        final Generator generator = new Generator("shared", "com.marvinformatics.toml", toml,
+                file -> new FileOutputStream(file), config);
+        generator.generate();
+
+        Assertions.assertThat(generator.sources())
+                .contains(new File(temp.getRoot(), "com/marvinformatics/toml/shared/servers/ServersEntry.java"))
+                .doesNotContain(new File(temp.getRoot(), "com/marvinformatics/toml/shared/servers/Alpha.java"))
+                .contains(new File(temp.getRoot(), "com/marvinformatics/toml/shared/clients/Alpha.java"));
+        Assertions.assertThat(read("com/marvinformatics/toml/shared/Servers.java"))
+                .contains("public com.marvinformatics.toml.shared.servers.ServersEntry beta(){")
+                .contains("public java.util.Map<java.lang.String,com.marvinformatics.toml.shared.servers.ServersEntry> asMap(){");
+        Assertions.assertThat(read("com/marvinformatics/toml/shared/Clients.java"))
+                .doesNotContain("asMap");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void deduplicateRequiresToml() throws Exception {
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.accessMode = AccessMode.CONSTANT;
+        config.deduplicate = true;
+        new Generator("shared", "com.marvinformatics.toml", new Toml().read("title = \"TOML Example\"\n"),
+                file -> new FileOutputStream(file), config).generate();
+    }
+
+    @Test
+    public void merge() throws Exception {
+        final Toml toml = new Toml().read("title = \"TOML Example\"\n"
+                + "port = 8001\n"
+                + "[owner]\n"
+                + "name = \"Tom\"\n");
+
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.accessMode = AccessMode.SNAPSHOT;
+        config.primitives = true;
+        config.merge = true;
+        new Generator("merged", "com.marvinformatics.toml", toml, file -> new FileOutputStream(file), config)
+                .generate();
+
+        Assertions.assertThat(read("com/marvinformatics/toml/Merged.java"))
+                .contains("public static Merged merge(com.moandjiezana.toml.Toml... layers) {")
+                .contains("public static Merged merge(java.util.List<Merged> layers) {")
+                .contains("this.title = last(layers, layer -> layer.title);")
+                .contains("this.portPresent = last(layers, layer -> layer.portPresent ? layer.port : null) != null;")
+                .contains("this.owner = com.marvinformatics.toml.merged.Owner.merge(each(layers, layer -> layer.owner));");
+        Assertions.assertThat(read("com/marvinformatics/toml/merged/Owner.java"))
+                .contains("private Owner (Owner[] layers) {");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeRequiresSnapshot() throws Exception {
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.merge = true;
+        new Generator("merged", "com.marvinformatics.toml", new Toml().read("title = \"TOML Example\"\n"),
+                file -> new FileOutputStream(file), config).generate();
+    }
+
+    @Test
+    public void pathLookup() throws Exception {
+        final Toml toml = new Toml().read("title = \"TOML Example\"\n"
+                + "[owner]\n"
+                + "name = \"Tom\"\n");
+
+        new Generator("paths", "com.marvinformatics.toml", toml, file -> new FileOutputStream(file),
+                new TestConfig(temp.getRoot())).generate();
+
+        Assertions.assertThat(read("com/marvinformatics/toml/Paths.java"))
+                .contains("public java.lang.Object get(java.lang.String path) {")
+                .contains("private static final java.lang.String SEEDS = ")
+                .contains("if (to == path.length() && matches(path, from, to, \"title\"))")
+                .contains("return to == path.length() || table == null ? table : table.get(path, to + 1);");
+        Assertions.assertThat(read("com/marvinformatics/toml/paths/Owner.java"))
+                .contains("public java.lang.Object get(java.lang.String path, int from) {");
+    }
+
+    @Test
+    public void pathLookupThroughTableNamedGet() throws Exception {
+        final Toml toml = new Toml().read("[get]\n"
+                + "name = \"Tom\"\n");
+
+        new Generator("paths", "com.marvinformatics.toml", toml, file -> new FileOutputStream(file),
+                new TestConfig(temp.getRoot())).generate();
+
+        Assertions.assertThat(read("com/marvinformatics/toml/Paths.java"))
+                .contains("com.marvinformatics.toml.paths.Get table = loadGet();")
+                .doesNotContain("get(null)");
+    }
+
+    @Test
+    public void visitor() throws Exception {
+        final Toml toml = new Toml().read("title = \"TOML Example\"\n"
+                + "port = 8001\n"
+                + "[owner]\n"
+                + "name = \"Tom\"\n");
+
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.accessMode = AccessMode.SNAPSHOT;
+        config.primitives = true;
+        config.visitor = true;
+        final Generator generator = new Generator("visited", "com.marvinformatics.toml", toml,
+                file -> new FileOutputStream(file), config);
+        generator.generate();
+
+        Assertions.assertThat(generator.sources())
+                .contains(new File(temp.getRoot(), "com/marvinformatics/toml/ConfigVisitor.java"));
+        Assertions.assertThat(read("com/marvinformatics/toml/Visited.java"))
+                .contains("public void forEach(com.marvinformatics.toml.ConfigVisitor visitor) {")
+                .contains("visitor.visitLong(\"port\", this.port);")
+                .contains("if (this.owner != null && visitor.enterTable(\"owner\")) {");
+    }
+
+    @Test
+    public void binary() throws Exception {
+        final Toml toml = new Toml().read("title = \"TOML Example\"\n"
+                + "port = 8001\n"
+                + "[owner]\n"
+                + "name = \"Tom\"\n");
+
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.accessMode = AccessMode.SNAPSHOT;
+        config.primitives = true;
+        config.binary = true;
+        final Generator generator = new Generator("compiled", "com.marvinformatics.toml", toml,
+                file -> new FileOutputStream(file), config);
+        generator.generate();
+
+        final File binary = new File(temp.getRoot(), "com/marvinformatics/toml/Compiled.tomlbin");
+        Assertions.assertThat(generator.sources())
+                .contains(new File(temp.getRoot(), "com/marvinformatics/toml/ConfigBinary.java"), binary);
+        Assertions.assertThat(binary)
+                .isFile();
+        Assertions.assertThat(read("com/marvinformatics/toml/Compiled.java"))
+                .contains("public static Compiled loadBinary() throws java.io.IOException {")
+                .contains("public Compiled (com.marvinformatics.toml.ConfigBinary binary, int offset) {")
+                .contains("this.portPresent = binary.isLong(offset, 1);")
+                .contains("result = binary.contains(offset, 0) ? new com.marvinformatics.toml.compiled.Owner(binary, binary.getTable(offset, 0)) : null;")
+                .doesNotContain("this.owner = binary");
+        Assertions.assertThat(read("com/marvinformatics/toml/compiled/Owner.java"))
+                .contains("result = binary.getString(offset, 0);");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void binaryRequiresSnapshot() throws Exception {
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.binary = true;
+        new Generator("compiled", "com.marvinformatics.toml", new Toml().read("title = \"TOML Example\"\n"),
+                file -> new FileOutputStream(file), config).generate();
+    }
+
+    @Test
+    public void lazy() throws Exception {
+        final Toml toml = new Toml().read("title = \"TOML Example\"\n"
+                + "[owner]\n"
+                + "name = \"Tom\"\n"
+                + "[[products]]\n"
+                + "sku = 1\n");
+
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.accessMode = AccessMode.DELEGATE;
+        config.lazy = true;
+        final Generator generator = new Generator("lazy", "com.marvinformatics.toml", toml,
+                file -> new FileOutputStream(file), config);
+        generator.generate();
+
+        Assertions.assertThat(generator.sources())
+                .contains(new File(temp.getRoot(), "com/marvinformatics/toml/LazyToml.java"));
+        Assertions.assertThat(read("com/marvinformatics/toml/Lazy.java"))
+                .contains("public static Lazy readLazily(java.lang.String document) {")
+                .contains("public Lazy (com.marvinformatics.toml.LazyToml lazy) {")
+                .contains("return toml.getString(\"title\");")
+                .contains("new com.marvinformatics.toml.lazy.Owner("
+                        + "com.marvinformatics.toml.LazyToml.section(lazy, toml, \"owner\").getTable(\"owner\"))")
+                .contains("com.marvinformatics.toml.LazyToml.section(lazy, toml, \"products\"), \"products\"");
+        Assertions.assertThat(read("com/marvinformatics/toml/lazy/Owner.java"))
+                .doesNotContain("LazyToml");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lazyRequiresDelegate() throws Exception {
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.accessMode = AccessMode.SNAPSHOT;
+        config.lazy = true;
+        new Generator("lazy", "com.marvinformatics.toml", new Toml().read("title = \"TOML Example\"\n"),
+                file -> new FileOutputStream(file), config).generate();
+    }
+
+    @Test
+    public void registry() throws Exception {
+        final Toml toml = new Toml().read("title = \"TOML Example\"\n"
+                + "[owner]\n"
+                + "name = \"Tom\"\n");
+
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.accessMode = AccessMode.SNAPSHOT;
+        config.merge = true;
+        config.registry = true;
+        final Generator generator = new Generator("tenants", "com.marvinformatics.toml", toml,
+                file -> new FileOutputStream(file), config);
+        generator.generate();
+
+        Assertions.assertThat(generator.sources())
+                .contains(new File(temp.getRoot(), "com/marvinformatics/toml/ConfigRegistry.java"));
+        Assertions.assertThat(read("com/marvinformatics/toml/Tenants.java"))
+                .contains("public static com.marvinformatics.toml.ConfigRegistry<Tenants> registry(Tenants base, "
+                        + "java.util.function.Function<java.lang.String,com.moandjiezana.toml.Toml> overrides, "
+                        + "long maximumTenants) {")
+                .contains("(config, override) -> merge(config, new Tenants(override))");
+        Assertions.assertThat(read("com/marvinformatics/toml/tenants/Owner.java"))
+                .doesNotContain("registry");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void registryRequiresMerge() throws Exception {
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.accessMode = AccessMode.SNAPSHOT;
+        config.registry = true;
+        new Generator("tenants", "com.marvinformatics.toml", new Toml().read("title = \"TOML Example\"\n"),
+                file -> new FileOutputStream(file), config).generate();
+    }
+
+    @Test
+    public void constants() throws Exception {
+        final Toml toml = new Toml().read("title = \"TOML \\\"Example\\\"\"\n"
+                + "ports = [ 8001, 8002 ]\n"
+                + "[owner]\n"
+                + "name = \"Tom\"\n");
+
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.accessMode = AccessMode.CONSTANT;
+        new Generator("constants", "com.marvinformatics.toml", toml, file -> new FileOutputStream(file), config)
+                .generate();
+
+        String source = read("com/marvinformatics/toml/Constants.java");
+        Assertions.assertThat(source)
+                .contains("public static final java.lang.String TITLE = \"TOML \\\"Example\\\"\";")
+                .contains("public static final Constants INSTANCE = new Constants();")
+                .contains("return com.marvinformatics.toml.constants.Owner.INSTANCE;")
+                .contains("java.util.Collections.unmodifiableList(java.util.Arrays.asList(8001L, 8002L))")
+                .doesNotContain("com.moandjiezana.toml");
+    }
+
+    @Test
+    public void parser() throws Exception {
+        final Toml toml = new Toml().read("title = \"TOML Example\"\n"
+                + "[owner]\n"
+                + "name = \"Tom\"\n");
+
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.accessMode = AccessMode.SNAPSHOT;
+        config.parser = true;
+        final Generator generator = new Generator("parsed", "com.marvinformatics.toml", toml,
+                file -> new FileOutputStream(file), config);
+        generator.generate();
+
+        Assertions.assertThat(generator.sources())
+                .contains(new File(temp.getRoot(), "com/marvinformatics/toml/TomlReader.java"));
+        Assertions.assertThat(read("com/marvinformatics/toml/TomlReader.java"))
+                .startsWith("package com.marvinformatics.toml;")
+                .contains("public final class TomlReader {");
+        Assertions.assertThat(read("com/marvinformatics/toml/Parsed.java"))
+                .contains("public static Parsed parse(java.io.Reader reader) throws java.io.IOException {")
+                .contains("public static final class Builder implements com.marvinformatics.toml.TomlReader.Table {")
+                .contains("title = reader.readString();")
+                .contains("owner = new com.marvinformatics.toml.parsed.Owner.Builder();");
+        Assertions.assertThat(read("com/marvinformatics/toml/parsed/Owner.java"))
+                .doesNotContain("parse(")
+                .contains("public Owner (Builder builder) {");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parserRequiresSnapshot() throws Exception {
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.parser = true;
+        new Generator("parsed", "com.marvinformatics.toml", new Toml().read("title = \"TOML Example\"\n"),
+                file -> new FileOutputStream(file), config).generate();
+    }
+
+    @Test
+    public void reloadable() throws Exception {
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.reloadable = true;
+        final Generator generator = new Generator("reloaded", "com.marvinformatics.toml",
+                new Toml().read("title = \"TOML Example\"\n"), file -> new FileOutputStream(file), config);
+        generator.generate();
+
+        Assertions.assertThat(generator.sources())
+                .contains(new File(temp.getRoot(), "com/marvinformatics/toml/Reloadable.java"));
+        Assertions.assertThat(read("com/marvinformatics/toml/Reloadable.java"))
+                .startsWith("package com.marvinformatics.toml;")
+                .contains("public final class Reloadable<T> implements java.io.Closeable {");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reloadableRequiresToml() throws Exception {
+        final TestConfig config = new TestConfig(temp.getRoot());
+        config.accessMode = AccessMode.CONSTANT;
+        config.reloadable = true;
+        new Generator("reloaded", "com.marvinformatics.toml", new Toml().read("title = \"TOML Example\"\n"),
+                file -> new FileOutputStream(file), config).generate();
+    }
+
+    private String read(String path) throws IOException {
+        return new String(Files.readAllBytes(new File(temp.getRoot(), path).toPath()), Charsets.UTF_8);
+    }
+
+    static class TestConfig implements ConfigSource {
+
+        private final File outputDirectory;
+
+        AccessMode accessMode = AccessMode.DELEGATE;
+
+        boolean primitives;
+
+        MemberOrder order = MemberOrder.DOCUMENT;
+
+        boolean parser;
+
+        boolean reloadable;
+
+        boolean deduplicate;
+
+        boolean merge;
+
+        boolean visitor;
+
+        boolean binary;
+
+        boolean lazy;
+
+        boolean registry;
+
+        TestConfig(File outputDirectory) {
+            this.outputDirectory = outputDirectory;
+        }
+
+        @Override
+        public String classPrefix() {
+            return "";
+        }
+
+        @Override
+        public String classSuffix() {
+            return "";
+        }
+
+        @Override
+        public Charset encoding() {
+            return Charsets.UTF_8;
+        }
+
+        @Override
+        public CaseFormat tableCase(CaseFormat tableCase) {
+            return tableCase;
+        }
+
+        @Override
+        public CaseFormat fieldCase(CaseFormat fieldCase) {
+            return fieldCase;
+        }
+
+        @Override
+        public File outputDirectory() {
+            return outputDirectory;
+        }
+
+        @Override
+        public AccessMode accessMode() {
+            return accessMode;
+        }
+
+        @Override
+        public boolean primitives() {
+            return primitives;
+        }
+
+        @Override
+        public MemberOrder order() {
+            return order;
+        }
+
+        @Override
+        public boolean parser() {
+            return parser;
+        }
+
+        @Override
+        public boolean reloadable() {
+            return reloadable;
+        }
+
+        @Override
+        public boolean deduplicate() {
+            return deduplicate;
+        }
+
+        @Override
+        public boolean merge() {
+            return merge;
+        }
+
+        @Override
+        public boolean visitor() {
+            return visitor;
+        }
+
+        @Override
+        public boolean binary() {
+            return binary;
+        }
+
+        @Override
+        public File binaryDirectory() {
+            return outputDirectory;
+        }
+
+        @Override
+        public boolean lazy() {
+            return lazy;
+        }
+
+        @Override
+        public boolean registry() {
+            return registry;
+        }
+
+    }
+
+}
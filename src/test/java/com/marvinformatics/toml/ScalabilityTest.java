@@ -0,0 +1,333 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import com.google.common.base.Charsets;
+import com.moandjiezana.toml.Toml;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import io.takari.maven.testing.TestMavenRuntime;
+
+/**
+ * Generates growing synthetic documents and fails when time or allocated heap grow faster than the generated
+ * output does. Those checks depend on the machine, so they only run with <code>-Dtoml.stress=true</code>. Sizes are
+ * tuned with <code>-Dtoml.stress.width</code> (keys per table) and <code>-Dtoml.stress.depth</code> (nested tables).
+ */
+public class ScalabilityTest {
+
+    private static final boolean STRESS = Boolean.getBoolean("toml.stress");
+
+    private static final int WIDTH = Integer.getInteger("toml.stress.width", 250);
+
+    private static final int DEPTH = Integer.getInteger("toml.stress.depth", 12);
+
+    private static final int RUNS = 3;
+
+    /**
+     * Allowed slack over linear growth, 4x the input may cost at most 8x.
+     */
+    private static final double SUPERLINEAR = 2.0;
+
+    @Rule
+    public final TemporaryFolder temp = new TemporaryFolder();
+
+    @Rule
+    public final TestMavenRuntime maven = new TestMavenRuntime();
+
+    private final List<URLClassLoader> loaders = new ArrayList<>();
+
+    @After
+    public void close() throws IOException {
+        for (URLClassLoader loader : loaders)
+            loader.close();
+    }
+
+    @Test
+    public void width() throws Exception {
+        Assume.assumeTrue("timing checks run with -Dtoml.stress=true", STRESS);
+        List<Sample> samples = new ArrayList<>();
+        for (int scale = 1; scale <= 4; scale *= 2)
+            samples.add(generate(new SyntheticToml().width(WIDTH * scale).depth(DEPTH)));
+
+        assertLinear(samples);
+    }
+
+    @Test
+    public void depth() throws Exception {
+        Assume.assumeTrue("timing checks run with -Dtoml.stress=true", STRESS);
+        List<Sample> samples = new ArrayList<>();
+        for (int scale = 1; scale <= 4; scale *= 2)
+            samples.add(generate(new SyntheticToml().width(WIDTH / 10).depth(DEPTH * scale)));
+
+        assertLinear(samples);
+    }
+
+    @Test
+    public void mojo() throws Exception {
+        Assume.assumeTrue("timing checks run with -Dtoml.stress=true", STRESS);
+        SyntheticToml toml = new SyntheticToml().width(WIDTH / 10).depth(DEPTH);
+        execute(toml, 1);
+
+        List<Sample> samples = new ArrayList<>();
+        for (int files = 4; files <= 16; files *= 2)
+            samples.add(execute(toml, files));
+
+        assertLinear(samples);
+    }
+
+    @Test
+    public void wideTableCompiles() throws Exception {
+        SyntheticToml synthetic = new SyntheticToml().width(20000).depth(0);
+        String document = synthetic.document();
+        Toml toml = new Toml().read(document);
+
+        for (AccessMode mode : AccessMode.values()) {
+            Class<?> wide = compile("wide", toml, document, mode);
+            Object instance = instance(wide, toml, mode);
+            Assertions.assertThat(wide.getMethod("key19998").invoke(instance))
+                    .isEqualTo("value 19998");
+            Assertions.assertThat(wide.getMethod("key19999", Long.class).invoke(instance, 0L))
+                    .isEqualTo(19999L);
+            Assertions.assertThat(wide.getMethod("get", String.class).invoke(instance, "key_12342"))
+                    .isEqualTo("value 12342");
+        }
+    }
+
+    @Test
+    public void collidingKeysAcrossParts() throws Exception {
+        // "Aa" and "BB" share a hashCode, so they always share a path slot while landing in different parts
+        StringBuilder document = new StringBuilder("Aa = \"first\"\n");
+        for (int i = 0; i < Generator.PART_SIZE; i++)
+            document.append("key").append(i).append(" = ").append(i).append('\n');
+        document.append("BB = \"second\"\n");
+        Toml toml = new Toml().read(document.toString());
+
+        for (AccessMode mode : AccessMode.values()) {
+            Class<?> colliding = compile("colliding", toml, document.toString(), mode);
+            Object instance = instance(colliding, toml, mode);
+            Assertions.assertThat(colliding.getMethod("get", String.class).invoke(instance, "Aa"))
+                    .as("%s", mode)
+                    .isEqualTo("first");
+            Assertions.assertThat(colliding.getMethod("get", String.class).invoke(instance, "BB"))
+                    .as("%s", mode)
+                    .isEqualTo("second");
+        }
+    }
+
+    @Test
+    public void splitParserReadsInlineTables() throws Exception {
+        StringBuilder document = new StringBuilder("items = [ { name = \"first\" }, { name = \"second\" } ]\n");
+        for (int i = 0; i < Generator.PART_SIZE; i++)
+            document.append("key").append(i).append(" = ").append(i).append('\n');
+        Toml toml = new Toml().read(document.toString());
+
+        Class<?> split = compile("split", toml, document.toString(), AccessMode.SNAPSHOT);
+        Object parsed = split.getMethod("parse", Reader.class).invoke(null, new StringReader(document.toString()));
+        List<?> items = (List<?>) split.getMethod("items").invoke(parsed);
+        Assertions.assertThat(items)
+                .hasSize(2);
+        Assertions.assertThat(items.get(1).getClass().getMethod("name").invoke(items.get(1)))
+                .isEqualTo("second");
+    }
+
+    private Class<?> compile(String name, Toml toml, String document, AccessMode mode) throws Exception {
+        GeneratorTest.TestConfig config = new GeneratorTest.TestConfig(temp.newFolder());
+        config.accessMode = mode;
+        config.parser = mode == AccessMode.SNAPSHOT;
+        Generator generator = new Generator(name, "com.marvinformatics.toml", toml, document,
+                file -> new FileOutputStream(file), config);
+        generator.generate();
+
+        File classes = temp.newFolder();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, Charsets.UTF_8)) {
+            boolean compiled = compiler.getTask(null, files, diagnostics,
+                    Arrays.asList("-d", classes.getAbsolutePath(),
+                            "-cp", System.getProperty("java.class.path"),
+                            "-nowarn"),
+                    null, files.getJavaFileObjectsFromFiles(generator.sources())).call();
+            Assertions.assertThat(compiled)
+                    .as("%s failed to compile: %s", mode, diagnostics.getDiagnostics())
+                    .isTrue();
+        }
+
+        URLClassLoader loader = new URLClassLoader(new URL[] { classes.toURI().toURL() },
+                ScalabilityTest.class.getClassLoader());
+        loaders.add(loader);
+        return loader.loadClass("com.marvinformatics.toml." + Character.toUpperCase(name.charAt(0)) + name.substring(1));
+    }
+
+    private static Object instance(Class<?> type, Toml toml, AccessMode mode) throws Exception {
+        return mode == AccessMode.CONSTANT
+                ? type.getField("INSTANCE").get(null)
+                : type.getConstructor(Toml.class).newInstance(toml);
+    }
+
+    private Sample generate(SyntheticToml synthetic) throws IOException {
+        String document = synthetic.document();
+        Toml toml = new Toml().read(document);
+
+        Sample best = null;
+        for (int run = 0; run <= RUNS; run++) {
+            AtomicInteger files = new AtomicInteger();
+            AtomicLong bytes = new AtomicLong();
+            GeneratorTest.TestConfig config = new GeneratorTest.TestConfig(temp.newFolder());
+
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            new Generator("synthetic", "com.marvinformatics.toml", toml, document, file -> {
+                files.incrementAndGet();
+                return counting(bytes);
+            }, config).generate();
+            Sample sample = new Sample(System.nanoTime() - start, allocatedBytes() - allocated, files.get(), bytes.get());
+
+            Assertions.assertThat(sample.files)
+                    .isEqualTo(synthetic.tables());
+            // first run only warms up
+            if (run > 0 && (best == null || sample.nanos < best.nanos))
+                best = sample;
+        }
+        return best;
+    }
+
+    private Sample execute(SyntheticToml synthetic, int count) throws Exception {
+        File basedir = temp.newFolder();
+        Files.write(new File(basedir, "pom.xml").toPath(), ("<project>\n"
+                + "  <modelVersion>4.0.0</modelVersion>\n"
+                + "  <groupId>com.marvinformatics.toml</groupId>\n"
+                + "  <artifactId>synthetic</artifactId>\n"
+                + "  <version>1-SNAPSHOT</version>\n"
+                + "  <properties>\n"
+                + "    <project.build.sourceEncoding>UTF-8</project.build.sourceEncoding>\n"
+                + "  </properties>\n"
+                + "</project>\n").getBytes(Charsets.UTF_8));
+        synthetic.corpus(new File(basedir, "src/main/resources"), count);
+
+        long start = System.nanoTime();
+        maven.executeMojo(basedir, "generate");
+        long nanos = System.nanoTime() - start;
+
+        List<File> sources;
+        try (Stream<java.nio.file.Path> walk = Files.walk(new File(basedir, "target/generated-sources/toml").toPath())) {
+            sources = walk.filter(path -> path.toString().endsWith(".java"))
+                    .map(path -> path.toFile())
+                    .collect(Collectors.toList());
+        }
+        Assertions.assertThat(sources)
+                .hasSize(count * synthetic.tables());
+
+        long bytes = sources.stream().mapToLong(file -> file.length()).sum();
+        return new Sample(nanos, -1, sources.size(), bytes);
+    }
+
+    private void assertLinear(List<Sample> samples) {
+        Sample first = samples.get(0);
+        Sample last = samples.get(samples.size() - 1);
+        double growth = (double) last.bytes / first.bytes;
+
+        Assertions.assertThat((double) last.nanos / first.nanos)
+                .as("time grew superlinearly: %s", samples)
+                .isLessThan(growth * SUPERLINEAR);
+        if (first.allocated > 0)
+            Assertions.assertThat((double) last.allocated / first.allocated)
+                    .as("heap grew superlinearly: %s", samples)
+                    .isLessThan(growth * SUPERLINEAR);
+    }
+
+    private static OutputStream counting(AtomicLong bytes) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) {
+                bytes.incrementAndGet();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                bytes.addAndGet(len);
+            }
+        };
+    }
+
+    /**
+     * @return bytes allocated so far by the current thread, or -1 when the JVM does not track it
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return -1;
+    }
+
+    private static class Sample {
+
+        private final long nanos;
+
+        private final long allocated;
+
+        private final int files;
+
+        private final long bytes;
+
+        Sample(long nanos, long allocated, int files, long bytes) {
+            this.nanos = nanos;
+            this.allocated = allocated;
+            this.files = files;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public String toString() {
+            String sample = String.format("%d files, %d bytes in %d ms", files, bytes, nanos / 1000000);
+            if (allocated < 0)
+                return sample;
+            return sample + String.format(" allocating %d KB", allocated / 1024);
+        }
+
+    }
+
+}
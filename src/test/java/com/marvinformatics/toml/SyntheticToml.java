@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import com.google.common.base.Charsets;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds synthetic toml documents: a chain of <code>depth</code> nested tables under the root, every table holding
+ * <code>width</code> keys that cycle through strings, integers, floats, booleans, dates and arrays.
+ */
+class SyntheticToml {
+
+    private int width = 10;
+
+    private int depth = 1;
+
+    SyntheticToml width(int width) {
+        this.width = width;
+        return this;
+    }
+
+    SyntheticToml depth(int depth) {
+        this.depth = depth;
+        return this;
+    }
+
+    /**
+     * @return how many classes the generator writes for one document
+     */
+    int tables() {
+        int classes = 0;
+        for (int level = 0; level <= depth; level++) {
+            // every table but the deepest also holds the next one
+            int members = level < depth ? width + 1 : width;
+            classes += members > Generator.PART_SIZE ? (members + Generator.PART_SIZE - 1) / Generator.PART_SIZE + 1 : 1;
+        }
+        return classes;
+    }
+
+    int keys() {
+        return width * (depth + 1);
+    }
+
+    String document() {
+        StringBuilder document = new StringBuilder();
+        StringBuilder table = new StringBuilder();
+        for (int level = 0; level <= depth; level++) {
+            if (level > 0) {
+                if (table.length() > 0)
+                    table.append('.');
+                table.append("level_").append(level);
+                document.append('[').append(table).append("]\n");
+            }
+            for (int key = 0; key < width; key++) {
+                document.append("key_").append(key).append(" = ");
+                switch (key % 6) {
+                    case 0:
+                        document.append("\"value ").append(key).append('"');
+                        break;
+                    case 1:
+                        document.append(key);
+                        break;
+                    case 2:
+                        document.append(key).append(".5");
+                        break;
+                    case 3:
+                        document.append(key % 2 == 0);
+                        break;
+                    case 4:
+                        document.append("1979-05-27T07:32:00Z");
+                        break;
+                    default:
+                        document.append('[').append(key).append(", ").append(key + 1).append(']');
+                }
+                document.append('\n');
+            }
+        }
+        return document.toString();
+    }
+
+    /**
+     * Writes <code>files</code> copies of the document, named <code>synthetic_N.toml</code>, into
+     * <code>directory</code>.
+     */
+    List<File> corpus(File directory, int files) throws IOException {
+        directory.mkdirs();
+        byte[] content = document().getBytes(Charsets.UTF_8);
+        List<File> corpus = new ArrayList<>();
+        for (int i = 0; i < files; i++) {
+            File file = new File(directory, "synthetic_" + i + ".toml");
+            Files.write(file.toPath(), content);
+            corpus.add(file);
+        }
+        return corpus;
+    }
+
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import com.marvinformatics.toml.embedded.TOMLDatabaseConfig;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+public class EmbeddedTest {
+
+    private final TOMLEmbeddedConfig embedded = TOMLEmbeddedConfig.INSTANCE;
+
+    @Test
+    public void constants() {
+        Assertions.assertThat(TOMLEmbeddedConfig.TITLE)
+                .isEqualTo("Embedded \"constants\"");
+        Assertions.assertThat(TOMLDatabaseConfig.CONNECTION_MAX)
+                .isEqualTo(5000L);
+    }
+
+    @Test
+    public void tablesAreSingletons() {
+        Assertions.assertThat(embedded.database())
+                .isSameAs(TOMLDatabaseConfig.INSTANCE);
+        Assertions.assertThat(embedded.servers().alpha().ip())
+                .isEqualTo("10.0.0.1");
+    }
+
+    @Test
+    public void owner() {
+        Assertions.assertThat(embedded.owner().dob())
+                .hasYear(1979)
+                .hasMonth(05);
+    }
+
+    @Test
+    public void arraysAreCopied() {
+        long[] ports = embedded.database().ports();
+        ports[0] = 0;
+
+        Assertions.assertThat(embedded.database().ports())
+                .containsExactly(8001L, 8001L, 8002L);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void listsAreImmutable() {
+        embedded.clients().hosts().add("gamma");
+    }
+
+    @Test
+    public void tableArrays() {
+        Assertions.assertThat(embedded.products())
+                .hasSize(1);
+        Assertions.assertThat(embedded.products().get(0).get("name"))
+                .isEqualTo("Hammer");
+    }
+
+    @Test
+    public void noTomlOnClasspath() throws Exception {
+        Assertions.assertThat(getClass().getClassLoader().getResource("com/moandjiezana/toml/Toml.class"))
+                .isNull();
+    }
+
+}
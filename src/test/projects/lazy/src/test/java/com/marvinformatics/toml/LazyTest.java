@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.moandjiezana.toml.Toml;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+public class LazyTest {
+
+    private LazyToml lazy;
+
+    private TOMLWikipediaConfig wikipedia;
+
+    @Before
+    public void setup() throws Exception {
+        lazy = new LazyToml(Files.toString(new File("src/main/resources/wikipedia.toml"), Charsets.UTF_8));
+
+        wikipedia = new TOMLWikipediaConfig(lazy);
+    }
+
+    @Test
+    public void rootValuesNeedNoSection() {
+        Assertions.assertThat(wikipedia.title())
+                .isEqualTo("TOML Example");
+
+        Assertions.assertThat(lazy.isParsed("owner"))
+                .isFalse();
+        Assertions.assertThat(lazy.isParsed("database"))
+                .isFalse();
+    }
+
+    @Test
+    public void sectionsAreParsedOnFirstAccess() {
+        Assertions.assertThat(wikipedia.database().ports())
+                .containsExactly(8001L, 8001L, 8002L);
+
+        Assertions.assertThat(lazy.isParsed("database"))
+                .isTrue();
+        Assertions.assertThat(lazy.isParsed("servers"))
+                .isFalse();
+    }
+
+    @Test
+    public void nestedTables() {
+        Assertions.assertThat(wikipedia.servers().alpha().ip())
+                .isEqualTo("10.0.0.1");
+        Assertions.assertThat(wikipedia.servers().beta().ip())
+                .isEqualTo("10.0.0.2");
+
+        Assertions.assertThat(lazy.section("servers"))
+                .isSameAs(lazy.section("servers"));
+    }
+
+    @Test
+    public void sameValuesAsEager() throws Exception {
+        final TOMLWikipediaConfig eager = new TOMLWikipediaConfig(
+                new Toml().read(new File("src/main/resources/wikipedia.toml")));
+
+        Assertions.assertThat(wikipedia.owner().dob())
+                .isEqualTo(eager.owner().dob());
+        Assertions.assertThat(wikipedia.clients().hosts())
+                .isEqualTo(eager.clients().hosts());
+        Assertions.assertThat(wikipedia.database().connectionMax())
+                .isEqualTo(eager.database().connectionMax());
+    }
+
+}
@@ -0,0 +1,295 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import com.moandjiezana.toml.Toml;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+public class ServiceTest {
+
+    private static final File SOURCE = new File("src/main/resources/service.toml");
+
+    private TOMLServiceConfig expected;
+
+    private TOMLServiceConfig parsed;
+
+    @Before
+    public void setup() throws Exception {
+        expected = new TOMLServiceConfig(new Toml().read(SOURCE));
+
+        try (Reader reader = new InputStreamReader(new FileInputStream(SOURCE), StandardCharsets.UTF_8)) {
+            parsed = TOMLServiceConfig.parse(reader);
+        }
+    }
+
+    @Test
+    public void strings() {
+        Assertions.assertThat(parsed.title())
+                .isEqualTo(expected.title());
+        Assertions.assertThat(parsed.description())
+                .isEqualTo(expected.description());
+        Assertions.assertThat(parsed.path())
+                .isEqualTo(expected.path());
+        Assertions.assertThat(parsed.owner().name())
+                .isEqualTo(expected.owner().name());
+    }
+
+    @Test
+    public void dates() {
+        Assertions.assertThat(parsed.owner().dob())
+                .isEqualTo(expected.owner().dob());
+    }
+
+    @Test
+    public void primitives() {
+        Assertions.assertThat(parsed.database().ports())
+                .containsExactly(expected.database().ports());
+        Assertions.assertThat(parsed.database().connectionMax())
+                .isEqualTo(expected.database().connectionMax());
+        Assertions.assertThat(parsed.database().ratio())
+                .isEqualTo(expected.database().ratio());
+        Assertions.assertThat(parsed.database().enabled())
+                .isEqualTo(expected.database().enabled());
+    }
+
+    @Test
+    public void tables() {
+        Assertions.assertThat(parsed.servers().alpha().ip())
+                .isEqualTo(expected.servers().alpha().ip());
+        Assertions.assertThat(parsed.servers().beta().dc())
+                .isEqualTo(expected.servers().beta().dc());
+    }
+
+    @Test
+    public void lists() {
+        Assertions.assertThat(parsed.clients().hosts())
+                .isEqualTo(expected.clients().hosts());
+        Assertions.assertThat(parsed.clients().<Object> data())
+                .isEqualTo(expected.clients().<Object> data());
+    }
+
+    @Test
+    public void tableArrays() {
+        Assertions.assertThat(parsed.products())
+                .hasSize(expected.products().size());
+        Assertions.assertThat(parsed.products().get(0).name())
+                .isEqualTo(expected.products().get(0).name());
+        Assertions.assertThat(parsed.products().get(1).name("none"))
+                .isEqualTo(expected.products().get(1).name("none"));
+        Assertions.assertThat(parsed.products().get(2).sku())
+                .isEqualTo(expected.products().get(2).sku());
+        Assertions.assertThat(parsed.products().get(2).size().length())
+                .isEqualTo(expected.products().get(2).size().length());
+        Assertions.assertThat(parsed.products().get(2))
+                .isSameAs(parsed.products().get(2));
+    }
+
+    @Test
+    public void inlineTableArrays() {
+        Assertions.assertThat(parsed.clients().endpoints())
+                .hasSize(expected.clients().endpoints().size());
+        Assertions.assertThat(parsed.clients().endpoints().get(0).host())
+                .isEqualTo(expected.clients().endpoints().get(0).host());
+        Assertions.assertThat(parsed.clients().endpoints().get(1).port())
+                .isEqualTo(expected.clients().endpoints().get(1).port());
+    }
+
+    @Test
+    public void sharedTables() throws Exception {
+        Assertions.assertThat(parsed.servers().asMap().keySet())
+                .isEqualTo(expected.servers().asMap().keySet());
+        Assertions.assertThat(parsed.servers().alpha())
+                .isSameAs(parsed.servers().asMap().get("alpha"));
+
+        String document = new String(Files.readAllBytes(SOURCE.toPath()), StandardCharsets.UTF_8)
+                + "\n[servers.gamma]\nip = \"10.0.0.3\"\n";
+        TOMLServiceConfig added = TOMLServiceConfig.parse(ByteBuffer.wrap(document.getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertThat(added.servers().asMap().get("gamma").ip())
+                .isEqualTo("10.0.0.3");
+        Assertions.assertThat(new TOMLServiceConfig(new Toml().read(document)).servers().asMap().get("gamma").ip())
+                .isEqualTo("10.0.0.3");
+    }
+
+    @Test
+    public void byteBuffer() throws Exception {
+        TOMLServiceConfig buffered = TOMLServiceConfig.parse(ByteBuffer.wrap(Files.readAllBytes(SOURCE.toPath())));
+
+        Assertions.assertThat(buffered.database().server())
+                .isEqualTo(expected.database().server());
+    }
+
+    @Test
+    public void paths() {
+        Assertions.assertThat(parsed.get("title"))
+                .isEqualTo(expected.title());
+        Assertions.assertThat(parsed.get("database.connection_max"))
+                .isEqualTo(expected.database().connectionMax());
+        Assertions.assertThat(parsed.get("servers.alpha.ip"))
+                .isEqualTo(expected.servers().alpha().ip());
+        Assertions.assertThat(parsed.get("servers.alpha"))
+                .isSameAs(parsed.servers().alpha());
+        Assertions.assertThat(parsed.get("servers.omega.ip"))
+                .isNull();
+        Assertions.assertThat(parsed.get("title.length"))
+                .isNull();
+    }
+
+    @Test
+    public void visitor() {
+        final StringBuilder visited = new StringBuilder();
+        parsed.forEach(new ConfigVisitor() {
+            @Override
+            public void visitString(String key, String value) {
+                if (key.equals("ip"))
+                    visited.append(value).append(' ');
+            }
+
+            @Override
+            public void visitLong(String key, long value) {
+                if (key.equals("connection_max"))
+                    visited.append(value).append(' ');
+            }
+
+            @Override
+            public boolean enterTable(String key) {
+                return !key.equals("beta");
+            }
+
+            @Override
+            public boolean enterTableArray(String key, int size) {
+                visited.append(key).append('[').append(size).append("] ");
+                return false;
+            }
+        });
+
+        Assertions.assertThat(visited.toString())
+                .isEqualTo(expected.database().connectionMax() + " " + expected.servers().alpha().ip() + " endpoints[2] products[3] ");
+    }
+
+    @Test
+    public void merge() {
+        TOMLServiceConfig merged = TOMLServiceConfig.merge(
+                new Toml().read(SOURCE),
+                new Toml().read("[database]\nserver = \"10.0.0.9\"\n[servers.gamma]\nip = \"10.0.0.3\"\n"),
+                new Toml().read("[database]\nenabled = false\n"));
+
+        Assertions.assertThat(merged.title())
+                .isEqualTo(expected.title());
+        Assertions.assertThat(merged.database().server())
+                .isEqualTo("10.0.0.9");
+        Assertions.assertThat(merged.database().enabled())
+                .isFalse();
+        Assertions.assertThat(merged.database().connectionMax())
+                .isEqualTo(expected.database().connectionMax());
+        Assertions.assertThat(merged.servers().asMap().keySet())
+                .containsExactly("alpha", "beta", "gamma");
+
+        TOMLServiceConfig overlay = TOMLServiceConfig.merge(parsed, new TOMLServiceConfig(new Toml().read("title = \"Overlay\"\n")));
+        Assertions.assertThat(overlay.title())
+                .isEqualTo("Overlay");
+        Assertions.assertThat(overlay.owner())
+                .isSameAs(parsed.owner());
+    }
+
+    @Test
+    public void registry() {
+        ConfigRegistry<TOMLServiceConfig> registry = TOMLServiceConfig.registry(parsed,
+                tenant -> "base".equals(tenant) ? null : new Toml().read("title = \"" + tenant + "\"\n"), 2);
+
+        TOMLServiceConfig alpha = registry.get("alpha");
+        Assertions.assertThat(alpha.title())
+                .isEqualTo("alpha");
+        Assertions.assertThat(alpha.database())
+                .isSameAs(parsed.database());
+        Assertions.assertThat(registry.get("alpha"))
+                .isSameAs(alpha);
+        Assertions.assertThat(registry.get("base"))
+                .isSameAs(parsed);
+
+        registry.get("beta");
+        Assertions.assertThat(registry.get("alpha"))
+                .isNotSameAs(alpha);
+
+        Assertions.assertThat(registry.size())
+                .isEqualTo(2);
+        Assertions.assertThat(registry.hits())
+                .isEqualTo(1L);
+        Assertions.assertThat(registry.misses())
+                .isEqualTo(4L);
+        Assertions.assertThat(registry.evictions())
+                .isEqualTo(2L);
+    }
+
+    @Test
+    public void binary() throws Exception {
+        TOMLServiceConfig loaded = TOMLServiceConfig.loadBinary();
+
+        Assertions.assertThat(loaded.title())
+                .isEqualTo(expected.title());
+        Assertions.assertThat(loaded.owner().dob())
+                .isEqualTo(expected.owner().dob());
+        Assertions.assertThat(loaded.database().ports())
+                .containsExactly(expected.database().ports());
+        Assertions.assertThat(loaded.database().enabled())
+                .isEqualTo(expected.database().enabled());
+        Assertions.assertThat(loaded.servers().asMap().keySet())
+                .isEqualTo(expected.servers().asMap().keySet());
+        Assertions.assertThat(loaded.clients().<Object> data())
+                .isEqualTo(expected.clients().<Object> data());
+        Assertions.assertThat(loaded.products().get(2).sku())
+                .isEqualTo(expected.products().get(2).sku());
+        Assertions.assertThat(loaded.get("servers.alpha.ip"))
+                .isEqualTo(expected.servers().alpha().ip());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void entriesRequireToml() {
+        parsed.entries();
+    }
+
+    @Test
+    public void defaultsWithoutToml() throws Exception {
+        TOMLServiceConfig merged = TOMLServiceConfig.merge(parsed, new TOMLServiceConfig(new Toml().read("title = \"Merged\"\n")));
+
+        for (TOMLServiceConfig defaultValue : Arrays.asList(parsed, merged, TOMLServiceConfig.loadBinary())) {
+            TOMLServiceConfig config = new TOMLServiceConfig(null, defaultValue);
+
+            Assertions.assertThat(config.title())
+                    .isEqualTo(defaultValue.title());
+            Assertions.assertThat(config.database().ports())
+                    .containsExactly(expected.database().ports());
+            Assertions.assertThat(config.database().connectionMax())
+                    .isEqualTo(expected.database().connectionMax());
+            Assertions.assertThat(config.servers().asMap().keySet())
+                    .isEqualTo(expected.servers().asMap().keySet());
+            Assertions.assertThat(config.get("owner.name"))
+                    .isEqualTo(expected.owner().name());
+        }
+    }
+
+}
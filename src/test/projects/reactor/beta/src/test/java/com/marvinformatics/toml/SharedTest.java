@@ -0,0 +1,37 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import com.moandjiezana.toml.Toml;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.io.File;
+
+public class SharedTest {
+
+    @Test
+    public void generatedFromSharedToml() {
+        TOMLSharedConfig shared = new TOMLSharedConfig(new Toml().read(new File("../shared/shared.toml")));
+
+        Assertions.assertThat(shared.database().connectionMax())
+                .isEqualTo(5000L);
+        Assertions.assertThat(shared.servers().alpha().ip())
+                .isEqualTo("10.0.0.1");
+    }
+
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (C) 2017 Marvin Herman Froeder (marvin@marvinformatics.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marvinformatics.toml;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ReloadableTest {
+
+    private Path file;
+
+    private Reloadable<TOMLServiceConfig> service;
+
+    private final List<String> changes = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setup() throws Exception {
+        file = Files.createTempDirectory("reloadable").resolve("service.toml");
+        Files.copy(new File("src/main/resources/service.toml").toPath(), file, StandardCopyOption.REPLACE_EXISTING);
+
+        service = new Reloadable<>(file, TOMLServiceConfig::new);
+        service.addListener("database", (path, oldValue, newValue) -> changes.add(path));
+    }
+
+    @After
+    public void close() throws Exception {
+        service.close();
+    }
+
+    @Test
+    public void initialSnapshot() {
+        Assertions.assertThat(service.get().title())
+                .isEqualTo("Service");
+        Assertions.assertThat(service.get().database().server())
+                .isEqualTo("192.168.1.1");
+    }
+
+    @Test
+    public void reloadPublishesNewSnapshot() throws Exception {
+        TOMLServiceConfig before = service.get();
+        rewrite("192.168.1.1", "10.0.0.1");
+
+        Assertions.assertThat(service.reload())
+                .isTrue();
+        Assertions.assertThat(service.get().database().server())
+                .isEqualTo("10.0.0.1");
+        Assertions.assertThat(before.database().server())
+                .isEqualTo("192.168.1.1");
+    }
+
+    @Test
+    public void onlyChangedPathsAreNotified() throws Exception {
+        rewrite("Tom", "Thomas");
+        service.reload();
+        Assertions.assertThat(changes)
+                .isEmpty();
+
+        rewrite("8002", "8003");
+        service.reload();
+        Assertions.assertThat(changes)
+                .containsExactly("database.ports");
+    }
+
+    @Test
+    public void unchangedContentIsNotPublished() throws Exception {
+        TOMLServiceConfig before = service.get();
+        rewrite("title", "title");
+
+        Assertions.assertThat(service.reload())
+                .isFalse();
+        Assertions.assertThat(service.get())
+                .isSameAs(before);
+    }
+
+    @Test
+    public void listenerStartsFromReturnedSnapshot() throws Exception {
+        List<Object> previous = new CopyOnWriteArrayList<>();
+        TOMLServiceConfig registered = service.addListener("title",
+                (path, oldValue, newValue) -> previous.add(oldValue));
+
+        rewrite("\"Service\"", "\"Edited\"");
+        service.reload();
+
+        Assertions.assertThat(previous)
+                .containsExactly(registered.title());
+    }
+
+    @Test
+    public void restoredContentClearsFailure() throws Exception {
+        byte[] original = Files.readAllBytes(file);
+        Files.write(file, "title = = broken\n".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < 300 && service.failure() == null; i++)
+            Thread.sleep(100);
+        Assertions.assertThat(service.failure())
+                .isNotNull();
+
+        Files.write(file, original);
+
+        Assertions.assertThat(service.reload())
+                .isFalse();
+        Assertions.assertThat(service.failure())
+                .isNull();
+    }
+
+    @Test
+    public void listenersRunOutsideTheLock() throws Exception {
+        CountDownLatch notified = new CountDownLatch(1);
+        AtomicBoolean registered = new AtomicBoolean();
+        service.addListener("title", (path, oldValue, newValue) -> {
+            Thread other = new Thread(() -> service.addListener("owner", (p, o, n) -> {
+            }));
+            other.start();
+            try {
+                other.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            registered.set(!other.isAlive());
+            notified.countDown();
+        });
+
+        rewrite("\"Service\"", "\"Edited\"");
+        service.reload();
+
+        Assertions.assertThat(notified.await(30, TimeUnit.SECONDS))
+                .isTrue();
+        Assertions.assertThat(registered.get())
+                .isTrue();
+    }
+
+    @Test
+    public void watchesFile() throws Exception {
+        CountDownLatch changed = new CountDownLatch(1);
+        service.addListener("title", (path, oldValue, newValue) -> changed.countDown());
+
+        rewrite("\"Service\"", "\"Edited\"");
+
+        Assertions.assertThat(changed.await(30, TimeUnit.SECONDS))
+                .isTrue();
+        Assertions.assertThat(service.get().title())
+                .isEqualTo("Edited");
+    }
+
+    private void rewrite(String from, String to) throws Exception {
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        Files.write(file, content.replace(from, to).getBytes(StandardCharsets.UTF_8));
+    }
+
+}
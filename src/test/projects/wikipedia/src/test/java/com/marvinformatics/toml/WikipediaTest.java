@@ -54,6 +54,21 @@ public class WikipediaTest {
                 .hasMonth(05);
     }
 
+    @Test
+    public void database() {
+        Assertions.assertThat(wikipedia.database().server())
+                .isEqualTo("192.168.1.1");
+
+        Assertions.assertThat(wikipedia.database().ports())
+                .containsExactly(8001L, 8001L, 8002L);
+
+        Assertions.assertThat(wikipedia.database().connectionMax())
+                .isEqualTo(5000L);
+
+        Assertions.assertThat(wikipedia.database().enabled())
+                .isTrue();
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void clients() {
@@ -89,4 +104,16 @@ public class WikipediaTest {
                 .isEqualTo("eqdc10");
     }
 
+    @Test
+    public void tablesAreMemoized() {
+        Assertions.assertThat(wikipedia.servers())
+                .isSameAs(wikipedia.servers());
+
+        Assertions.assertThat(wikipedia.servers().alpha())
+                .isSameAs(wikipedia.servers().alpha());
+
+        Assertions.assertThat(wikipedia.servers().alpha(null))
+                .isSameAs(wikipedia.servers().alpha());
+    }
+
 }